@@ -0,0 +1,185 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+
+/*
+A bitboard is a set of tiles in one long, bit i standing for tile i, so a8 is bit 0 and h1 bit 63 like
+the tile numbers everywhere else. Moving every tile of a set one step is a shift, and the tiles that
+would wrap around to the other side of the board are masked off by column: +1 is a step to the right,
+so whatever lands on the a-file came from the h-file of the row above and is dropped.
+
+The attack sets here are what a piece standing on a tile attacks, whatever is on the tiles it attacks;
+the pieces mask out their own side afterwards. Knights, kings and pawns attack the same tiles whatever
+else is on the board, so theirs are shifted once per tile when the class loads and then looked up.
+Sliding pieces stop at the first occupied tile of each ray. MagicBitBoards looks their attacks up in
+one step; the ray versions below, which find the first occupied tile with one bit scan per ray, are
+what its tables are built from and checked against.
+*/
+public final class BitBoards {
+
+    public static final long EMPTY = 0L;
+    public static final long COLUMN_A = 0x0101010101010101L;
+    public static final long COLUMN_B = COLUMN_A << 1;
+    public static final long COLUMN_G = COLUMN_A << 6;
+    public static final long COLUMN_H = COLUMN_A << 7;
+    private static final long NOT_COLUMN_A = ~COLUMN_A;
+    private static final long NOT_COLUMN_H = ~COLUMN_H;
+    private static final long NOT_COLUMNS_AB = ~(COLUMN_A | COLUMN_B);
+    private static final long NOT_COLUMNS_GH = ~(COLUMN_G | COLUMN_H);
+
+    //the eight directions as tile offsets, the ones below 4 go towards lower tiles.
+    private static final int[] DIRECTION_OFFSETS = {-9, -8, -7, -1, 1, 7, 8, 9};
+    private static final int[] DIRECTION_ROWS = {-1, -1, -1, 0, 0, 1, 1, 1};
+    private static final int[] DIRECTION_COLUMNS = {-1, 0, 1, -1, 1, -1, 0, 1};
+    static final int[] ROOK_DIRECTIONS = {1, 3, 4, 6};
+    static final int[] BISHOP_DIRECTIONS = {0, 2, 5, 7};
+    //RAYS[direction][tile]: every tile from the tile to the edge of the board, the tile itself excluded.
+    private static final long[][] RAYS = initRays();
+    private static final long[] KNIGHT_ATTACKS = new long[BoardUtils.NUM_TILES];
+    private static final long[] KING_ATTACKS = new long[BoardUtils.NUM_TILES];
+    //PAWN_ATTACKS[alliance.ordinal()][tile]
+    private static final long[][] PAWN_ATTACKS = new long[Alliance.values().length][BoardUtils.NUM_TILES];
+
+    static {
+        for(int tile = 0; tile < BoardUtils.NUM_TILES; tile++){
+            KNIGHT_ATTACKS[tile] = shiftKnight(bit(tile));
+            KING_ATTACKS[tile] = shiftKing(bit(tile));
+            for(final Alliance alliance : Alliance.values()){
+                PAWN_ATTACKS[alliance.ordinal()][tile] = shiftPawn(bit(tile), alliance);
+            }
+        }
+    }
+
+    //prevent the user from instantiating this class.
+    private BitBoards(){
+        throw new RuntimeException("You cannot instantiate me!");
+    }
+
+    public static long bit(final int tileCoordinate){
+        return 1L << tileCoordinate;
+    }
+
+    public static boolean contains(final long bitBoard, final int tileCoordinate){
+        return (bitBoard & bit(tileCoordinate)) != 0;
+    }
+
+    //the lowest tile of a set that is not empty, loop with removeFirstTile() to go over all of them.
+    public static int firstTile(final long bitBoard){
+        return Long.numberOfTrailingZeros(bitBoard);
+    }
+
+    public static long removeFirstTile(final long bitBoard){
+        return bitBoard & (bitBoard - 1);
+    }
+
+    public static long knightAttacks(final int tileCoordinate){
+        return KNIGHT_ATTACKS[tileCoordinate];
+    }
+
+    public static long kingAttacks(final int tileCoordinate){
+        return KING_ATTACKS[tileCoordinate];
+    }
+
+    //the two tiles diagonally in front of a pawn of the alliance, white moves towards the lower tiles.
+    public static long pawnAttacks(final int tileCoordinate, final Alliance alliance){
+        return PAWN_ATTACKS[alliance.ordinal()][tileCoordinate];
+    }
+
+    public static long rookAttacks(final int tileCoordinate, final long occupied){
+        return MagicBitBoards.rookAttacks(tileCoordinate, occupied);
+    }
+
+    public static long bishopAttacks(final int tileCoordinate, final long occupied){
+        return MagicBitBoards.bishopAttacks(tileCoordinate, occupied);
+    }
+
+    public static long queenAttacks(final int tileCoordinate, final long occupied){
+        return rookAttacks(tileCoordinate, occupied) | bishopAttacks(tileCoordinate, occupied);
+    }
+
+    //the attacks along the rays of the directions, walked with a bit scan per ray.
+    static long slidingAttacks(final int[] directions, final int tileCoordinate, final long occupied){
+        long attacks = EMPTY;
+        for(final int direction : directions){
+            attacks |= rayAttacks(direction, tileCoordinate, occupied);
+        }
+        return attacks;
+    }
+
+    /*
+    The tiles whose occupancy decides the attacks along the rays: all of each ray but the tile at the
+    edge, a piece there has nothing behind it to block.
+    */
+    static long slidingMask(final int[] directions, final int tileCoordinate){
+        long mask = EMPTY;
+        for(final int direction : directions){
+            final long ray = RAYS[direction][tileCoordinate];
+            if(ray == EMPTY){
+                continue;
+            }
+            final int lastTile = DIRECTION_OFFSETS[direction] > 0 ? 63 - Long.numberOfLeadingZeros(ray) :
+                                                                    Long.numberOfTrailingZeros(ray);
+            mask |= ray & ~bit(lastTile);
+        }
+        return mask;
+    }
+
+    //the ray up to and including the first occupied tile on it, the nearest one being the lowest or the highest bit.
+    private static long rayAttacks(final int direction, final int tileCoordinate, final long occupied){
+        final long ray = RAYS[direction][tileCoordinate];
+        final long blockers = ray & occupied;
+        if(blockers == EMPTY){
+            return ray;
+        }
+        final int blocker = DIRECTION_OFFSETS[direction] > 0 ? Long.numberOfTrailingZeros(blockers) :
+                                                               63 - Long.numberOfLeadingZeros(blockers);
+        return ray & ~RAYS[direction][blocker];
+    }
+
+    public static String toString(final long bitBoard){
+        final StringBuilder builder = new StringBuilder();
+        for(int i = 0; i < BoardUtils.NUM_TILES; i++){
+            builder.append(contains(bitBoard, i) ? " x" : " -");
+            if((i + 1) % BoardUtils.NUM_TILES_PER_ROW == 0){
+                builder.append("\n");
+            }
+        }
+        return builder.toString();
+    }
+
+    private static long shiftKnight(final long knight){
+        return ((knight >>> 17) & NOT_COLUMN_H) | ((knight >>> 15) & NOT_COLUMN_A) |
+               ((knight >>> 10) & NOT_COLUMNS_GH) | ((knight >>> 6) & NOT_COLUMNS_AB) |
+               ((knight << 6) & NOT_COLUMNS_GH) | ((knight << 10) & NOT_COLUMNS_AB) |
+               ((knight << 15) & NOT_COLUMN_H) | ((knight << 17) & NOT_COLUMN_A);
+    }
+
+    private static long shiftKing(final long king){
+        return ((king >>> 9) & NOT_COLUMN_H) | (king >>> 8) | ((king >>> 7) & NOT_COLUMN_A) |
+               ((king >>> 1) & NOT_COLUMN_H) | ((king << 1) & NOT_COLUMN_A) |
+               ((king << 7) & NOT_COLUMN_H) | (king << 8) | ((king << 9) & NOT_COLUMN_A);
+    }
+
+    private static long shiftPawn(final long pawn, final Alliance alliance){
+        if(alliance.isWhite()){
+            return ((pawn >>> 9) & NOT_COLUMN_H) | ((pawn >>> 7) & NOT_COLUMN_A);
+        }
+        return ((pawn << 7) & NOT_COLUMN_H) | ((pawn << 9) & NOT_COLUMN_A);
+    }
+
+    private static long[][] initRays(){
+        final long[][] rays = new long[DIRECTION_OFFSETS.length][BoardUtils.NUM_TILES];
+        for(int direction = 0; direction < DIRECTION_OFFSETS.length; direction++){
+            for(int tile = 0; tile < BoardUtils.NUM_TILES; tile++){
+                int row = tile / BoardUtils.NUM_TILES_PER_ROW + DIRECTION_ROWS[direction];
+                int column = tile % BoardUtils.NUM_TILES_PER_ROW + DIRECTION_COLUMNS[direction];
+                while(row >= 0 && row < BoardUtils.NUM_TILES_PER_ROW && column >= 0 && column < BoardUtils.NUM_TILES_PER_ROW){
+                    rays[direction][tile] |= bit(row * BoardUtils.NUM_TILES_PER_ROW + column);
+                    row += DIRECTION_ROWS[direction];
+                    column += DIRECTION_COLUMNS[direction];
+                }
+            }
+        }
+        return rays;
+    }
+}
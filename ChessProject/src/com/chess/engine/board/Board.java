@@ -12,6 +12,12 @@ import java.util.*;
 
 public class Board {
 
+    //castling rights, one bit for each rook that may still castle with its king.
+    public static final int WHITE_KING_SIDE_CASTLE = 1;
+    public static final int WHITE_QUEEN_SIDE_CASTLE = 2;
+    public static final int BLACK_KING_SIDE_CASTLE = 4;
+    public static final int BLACK_QUEEN_SIDE_CASTLE = 8;
+
     //we use a list since we cannot have an immutable array but we can have an immutable list.
     private final List<Tiles> gameBoard;
 
@@ -19,10 +25,17 @@ public class Board {
     private final Collection<Piece> whitePieces;
     private final Collection<Piece> blackPieces;
 
+    //one bitboard per piece type and alliance, indexed like the Zobrist keys, and the tiles each side occupies.
+    private final long[] pieceBitBoards;
+    private final long whiteOccupancy;
+    private final long blackOccupancy;
+
     private final WhitePlayer whitePlayer;
     private final BlackPlayer blackPlayer;
     private final Player currentPlayer;
     private final Pawn enPassantPawn;
+    private final int castlingRights;
+    private final long zobristKey;
 
 
 
@@ -30,13 +43,19 @@ public class Board {
         this.gameBoard = createGameBoard(builder);
         this.whitePieces = calculateActivePieces(this.gameBoard, Alliance.WHITE);
         this.blackPieces = calculateActivePieces(this.gameBoard, Alliance.BLACK);
+        this.pieceBitBoards = new long[Piece.PieceType.values().length * 2];
+        this.whiteOccupancy = addBitBoards(this.whitePieces, this.pieceBitBoards);
+        this.blackOccupancy = addBitBoards(this.blackPieces, this.pieceBitBoards);
         this.enPassantPawn = builder.enPassantPawn;
-        final Collection<Move> whiteStandardLegalMoves = calculateLegalMoves(this.whitePieces);
-        final Collection<Move> blackStandardLegalMoves = calculateLegalMoves(this.blackPieces);
-
-        //pass in the board and white, and black, standard legal moves for each player we construct
-        this.whitePlayer = new WhitePlayer(this, whiteStandardLegalMoves, blackStandardLegalMoves);
-        this.blackPlayer = new BlackPlayer(this, whiteStandardLegalMoves, blackStandardLegalMoves);
+        this.castlingRights = calculateCastlingRights();
+        //a move hands us the key it updated from the board it was made on, otherwise we hash every piece.
+        final long positionKey = builder.hasPositionKey ? builder.positionKey :
+                                 Zobrist.calculatePositionKey(this, builder.nextMoveMaker);
+        this.zobristKey = positionKey ^ Zobrist.castlingKey(this.castlingRights);
+
+        //pass in the board and how to get the standard legal moves, each player asks when it first needs them.
+        this.whitePlayer = new WhitePlayer(this, () -> calculateLegalMoves(this.whitePieces));
+        this.blackPlayer = new BlackPlayer(this, () -> calculateLegalMoves(this.blackPieces));
         this.currentPlayer = builder.nextMoveMaker.choosePlayer(this.whitePlayer, this.blackPlayer);
     }
 
@@ -59,6 +78,64 @@ public class Board {
     public Player currentPlayer(){
         return this.currentPlayer;
     }
+
+    //64 bit Zobrist key, equal positions have equal keys whatever moves led to them.
+    public long getZobristKey(){
+        return this.zobristKey;
+    }
+
+    public int getCastlingRights(){
+        return this.castlingRights;
+    }
+
+    //the tiles the pieces of one type and alliance stand on.
+    public long getPieceBitBoard(final Piece.PieceType pieceType, final Alliance alliance){
+        return this.pieceBitBoards[bitBoardIndex(pieceType, alliance)];
+    }
+
+    public long getOccupancy(final Alliance alliance){
+        return alliance.isWhite() ? this.whiteOccupancy : this.blackOccupancy;
+    }
+
+    public long getOccupancy(){
+        return this.whiteOccupancy | this.blackOccupancy;
+    }
+
+    /*
+    Whether a piece of the attacker's alliance could capture on the tile. We look from the tile outwards
+    with the attacks of each piece type and check whether they meet an attacker of that type: a knight
+    on the tile reaches exactly the knights that reach the tile, and so on. A pawn attacks the way the
+    defender's pawn on the tile would.
+    */
+    public boolean isTileAttacked(final int tileCoordinate, final Alliance attacker){
+        final Alliance defender = attacker.isWhite() ? Alliance.BLACK : Alliance.WHITE;
+        if((BitBoards.pawnAttacks(tileCoordinate, defender) & getPieceBitBoard(Piece.PieceType.PAWN, attacker)) != 0 ||
+           (BitBoards.knightAttacks(tileCoordinate) & getPieceBitBoard(Piece.PieceType.KNIGHT, attacker)) != 0 ||
+           (BitBoards.kingAttacks(tileCoordinate) & getPieceBitBoard(Piece.PieceType.KING, attacker)) != 0){
+            return true;
+        }
+        final long queens = getPieceBitBoard(Piece.PieceType.QUEEN, attacker);
+        final long occupied = getOccupancy();
+        return (BitBoards.rookAttacks(tileCoordinate, occupied) &
+                (getPieceBitBoard(Piece.PieceType.ROOK, attacker) | queens)) != 0 ||
+               (BitBoards.bishopAttacks(tileCoordinate, occupied) &
+                (getPieceBitBoard(Piece.PieceType.BISHOP, attacker) | queens)) != 0;
+    }
+
+    private static int bitBoardIndex(final Piece.PieceType pieceType, final Alliance alliance){
+        return pieceType.ordinal() * 2 + alliance.ordinal();
+    }
+
+    //sets the bit of every piece in its bitboard and returns all of their tiles.
+    private static long addBitBoards(final Collection<Piece> pieces, final long[] pieceBitBoards){
+        long occupancy = BitBoards.EMPTY;
+        for(final Piece piece : pieces){
+            final long tile = BitBoards.bit(piece.getPiecePosition());
+            pieceBitBoards[bitBoardIndex(piece.getPieceType(), piece.getPieceAlliance())] |= tile;
+            occupancy |= tile;
+        }
+        return occupancy;
+    }
     @Override
     public String toString(){
         final StringBuilder builder = new StringBuilder();
@@ -103,6 +180,35 @@ public class Board {
         return ImmutableList.copyOf(activePieces);
     }
 
+    //a side may castle with a rook when neither the king nor that rook has moved yet.
+    private int calculateCastlingRights(){
+        int rights = 0;
+        if(hasUnmovedKing(this.whitePieces)){
+            rights |= isUnmovedRook(63, Alliance.WHITE) ? WHITE_KING_SIDE_CASTLE : 0;
+            rights |= isUnmovedRook(56, Alliance.WHITE) ? WHITE_QUEEN_SIDE_CASTLE : 0;
+        }
+        if(hasUnmovedKing(this.blackPieces)){
+            rights |= isUnmovedRook(7, Alliance.BLACK) ? BLACK_KING_SIDE_CASTLE : 0;
+            rights |= isUnmovedRook(0, Alliance.BLACK) ? BLACK_QUEEN_SIDE_CASTLE : 0;
+        }
+        return rights;
+    }
+
+    private static boolean hasUnmovedKing(final Collection<Piece> pieces){
+        for(final Piece piece : pieces){
+            if(piece.getPieceType().isKing()){
+                return piece.isFirstMove();
+            }
+        }
+        return false;
+    }
+
+    private boolean isUnmovedRook(final int tileCoordinate, final Alliance alliance){
+        final Piece piece = this.gameBoard.get(tileCoordinate).getPiece();
+        return piece != null && piece.getPieceType().isRook() &&
+               piece.getPieceAlliance() == alliance && piece.isFirstMove();
+    }
+
     public Tiles getTile(final int tileCoordinate){
         return gameBoard.get(tileCoordinate);
     }
@@ -181,6 +287,10 @@ public class Board {
 
         Pawn enPassantPawn;
 
+        //key of the new position without castling rights, the board adds those once it knows them.
+        long positionKey;
+        boolean hasPositionKey;
+
         public Builder(){
             this.boardConfig = new HashMap<>();
         }
@@ -204,6 +314,11 @@ public class Board {
             this.enPassantPawn = enPassantPawn;
         }
 
+        void setPositionKey(final long positionKey) {
+            this.positionKey = positionKey;
+            this.hasPositionKey = true;
+        }
+
 
     }
 
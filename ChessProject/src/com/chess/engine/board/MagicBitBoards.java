@@ -0,0 +1,203 @@
+package com.chess.engine.board;
+
+import java.util.Locale;
+import java.util.Random;
+
+/*
+Sliding attacks looked up instead of walked. Only the pieces on the mask of a tile (its rays without
+the edge tiles) decide what a rook or bishop there attacks, at most 12 and 9 tiles, so every possible
+occupancy of the mask can have its attack set stored. To find the entry the masked occupancy is
+multiplied by a magic number for the tile and the top bits of the product taken: the magic is one that
+sends every occupancy to a slot where no occupancy with different attacks lands. A lookup is then an
+and, a multiply, a shift and a load.
+
+The magics are not written down but searched for when the class loads. The generator starts every row
+of the board from a seed of its own, picked because it finds that row's magics quickly, so the search
+takes a few hundred thousand tries instead of millions and every run finds the same magics. The tables
+are filled from the ray walker in BitBoards, and main() checks the two against each other on random
+occupancies:
+
+    java com.chess.engine.board.MagicBitBoards [positions]
+*/
+public final class MagicBitBoards {
+
+    private static final long[] ROW_SEEDS = {13533, 13685, 8166, 2205, 3620, 17012, 17463, 30};
+    private static final int MAX_TRIES = 100000000;
+
+    private static final long[] ROOK_MASKS = new long[BoardUtils.NUM_TILES];
+    private static final long[] ROOK_MAGICS = new long[BoardUtils.NUM_TILES];
+    private static final int[] ROOK_SHIFTS = new int[BoardUtils.NUM_TILES];
+    private static final int[] ROOK_OFFSETS = new int[BoardUtils.NUM_TILES];
+    private static final long[] BISHOP_MASKS = new long[BoardUtils.NUM_TILES];
+    private static final long[] BISHOP_MAGICS = new long[BoardUtils.NUM_TILES];
+    private static final int[] BISHOP_SHIFTS = new int[BoardUtils.NUM_TILES];
+    private static final int[] BISHOP_OFFSETS = new int[BoardUtils.NUM_TILES];
+    //every tile's slots one after the other, the offsets say where a tile's part starts.
+    private static final long[] ROOK_ATTACKS;
+    private static final long[] BISHOP_ATTACKS;
+    private static final long BUILD_NANOS;
+
+    static {
+        final long startTime = System.nanoTime();
+        ROOK_ATTACKS = new long[initMasks(BitBoards.ROOK_DIRECTIONS, ROOK_MASKS, ROOK_SHIFTS, ROOK_OFFSETS)];
+        BISHOP_ATTACKS = new long[initMasks(BitBoards.BISHOP_DIRECTIONS, BISHOP_MASKS, BISHOP_SHIFTS, BISHOP_OFFSETS)];
+        for(int row = 0; row < BoardUtils.NUM_TILES_PER_ROW; row++){
+            final SparseRandom random = new SparseRandom(ROW_SEEDS[row]);
+            for(int column = 0; column < BoardUtils.NUM_TILES_PER_ROW; column++){
+                final int tile = row * BoardUtils.NUM_TILES_PER_ROW + column;
+                ROOK_MAGICS[tile] = findMagic(BitBoards.ROOK_DIRECTIONS, tile, ROOK_MASKS[tile], ROOK_SHIFTS[tile],
+                                              ROOK_ATTACKS, ROOK_OFFSETS[tile], random);
+            }
+            for(int column = 0; column < BoardUtils.NUM_TILES_PER_ROW; column++){
+                final int tile = row * BoardUtils.NUM_TILES_PER_ROW + column;
+                BISHOP_MAGICS[tile] = findMagic(BitBoards.BISHOP_DIRECTIONS, tile, BISHOP_MASKS[tile],
+                                                BISHOP_SHIFTS[tile], BISHOP_ATTACKS, BISHOP_OFFSETS[tile], random);
+            }
+        }
+        BUILD_NANOS = System.nanoTime() - startTime;
+    }
+
+    //prevent the user from instantiating this class.
+    private MagicBitBoards(){
+        throw new RuntimeException("You cannot instantiate me!");
+    }
+
+    public static void main(final String[] args){
+        final int positions = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        System.out.println(getReport());
+        final int mismatches = verify(positions, new Random());
+        System.out.println(positions + " random positions checked against the ray walker, " + mismatches + " mismatches");
+        if(mismatches > 0){
+            System.exit(1);
+        }
+    }
+
+    public static long rookAttacks(final int tileCoordinate, final long occupied){
+        final int index = (int) (((occupied & ROOK_MASKS[tileCoordinate]) * ROOK_MAGICS[tileCoordinate]) >>>
+                                 ROOK_SHIFTS[tileCoordinate]);
+        return ROOK_ATTACKS[ROOK_OFFSETS[tileCoordinate] + index];
+    }
+
+    public static long bishopAttacks(final int tileCoordinate, final long occupied){
+        final int index = (int) (((occupied & BISHOP_MASKS[tileCoordinate]) * BISHOP_MAGICS[tileCoordinate]) >>>
+                                 BISHOP_SHIFTS[tileCoordinate]);
+        return BISHOP_ATTACKS[BISHOP_OFFSETS[tileCoordinate] + index];
+    }
+
+    public static long getBuildNanos(){
+        return BUILD_NANOS;
+    }
+
+    //the attack tables with the masks, magics, shifts and offsets that index them.
+    public static long getTableBytes(){
+        return (ROOK_ATTACKS.length + BISHOP_ATTACKS.length) * 8L +
+               BoardUtils.NUM_TILES * 2L * (8 + 8 + 4 + 4);
+    }
+
+    public static String getReport(){
+        return String.format(Locale.ROOT, "magic bitboards: built in %.1f ms, %d rook and %d bishop entries, %.1f KB",
+                             BUILD_NANOS / 1e6, ROOK_ATTACKS.length, BISHOP_ATTACKS.length, getTableBytes() / 1024.0);
+    }
+
+    /*
+    Compares the lookups with the ray walker for every tile on random occupancies, sparse and crowded
+    ones alike since the number of pieces is random too. Returns the number of lookups that differ.
+    */
+    public static int verify(final int positions, final Random random){
+        int mismatches = 0;
+        for(int i = 0; i < positions; i++){
+            long occupied = random.nextLong();
+            for(int thinning = random.nextInt(4); thinning > 0; thinning--){
+                occupied &= random.nextLong();
+            }
+            for(int tile = 0; tile < BoardUtils.NUM_TILES; tile++){
+                if(rookAttacks(tile, occupied) != BitBoards.slidingAttacks(BitBoards.ROOK_DIRECTIONS, tile, occupied)){
+                    mismatches++;
+                }
+                if(bishopAttacks(tile, occupied) != BitBoards.slidingAttacks(BitBoards.BISHOP_DIRECTIONS, tile, occupied)){
+                    mismatches++;
+                }
+            }
+        }
+        return mismatches;
+    }
+
+    //the masks, and where each tile's part of the table starts. Returns the size of the table.
+    private static int initMasks(final int[] directions, final long[] masks, final int[] shifts, final int[] offsets){
+        int tableSize = 0;
+        for(int tile = 0; tile < BoardUtils.NUM_TILES; tile++){
+            masks[tile] = BitBoards.slidingMask(directions, tile);
+            shifts[tile] = 64 - Long.bitCount(masks[tile]);
+            offsets[tile] = tableSize;
+            tableSize += 1 << Long.bitCount(masks[tile]);
+        }
+        return tableSize;
+    }
+
+    /*
+    Tries random numbers with few bits set, those spread the occupancies best, until one indexes every
+    occupancy of the mask without two different attack sets sharing a slot. Occupancies that share a
+    slot and the attacks are a good collision and fine. The slots the magic filled are left in the table.
+    */
+    private static long findMagic(final int[] directions,
+                                  final int tileCoordinate,
+                                  final long mask,
+                                  final int shift,
+                                  final long[] table,
+                                  final int offset,
+                                  final SparseRandom random){
+        final int size = 1 << Long.bitCount(mask);
+        final long[] occupancies = new long[size];
+        final long[] attacks = new long[size];
+        //every subset of the mask, carry-rippler style.
+        long occupancy = BitBoards.EMPTY;
+        for(int i = 0; i < size; i++){
+            occupancies[i] = occupancy;
+            attacks[i] = BitBoards.slidingAttacks(directions, tileCoordinate, occupancy);
+            occupancy = (occupancy - mask) & mask;
+        }
+        //the try that last wrote a slot, so the slots need no clearing between tries.
+        final int[] filledBy = new int[size];
+        for(int attempt = 1; attempt <= MAX_TRIES; attempt++){
+            final long magic = random.nextSparseLong();
+            if(Long.bitCount((mask * magic) >>> 56) < 6){
+                continue;
+            }
+            boolean collision = false;
+            for(int i = 0; i < size && !collision; i++){
+                final int index = (int) ((occupancies[i] * magic) >>> shift);
+                if(filledBy[index] != attempt){
+                    filledBy[index] = attempt;
+                    table[offset + index] = attacks[i];
+                } else if(table[offset + index] != attacks[i]){
+                    collision = true;
+                }
+            }
+            if(!collision){
+                return magic;
+            }
+        }
+        throw new RuntimeException("No magic found for tile " + tileCoordinate);
+    }
+
+    //xorshift64*, much cheaper than java.util.Random and good enough for guessing magics.
+    private static final class SparseRandom {
+        private long state;
+
+        SparseRandom(final long seed){
+            this.state = seed;
+        }
+
+        long nextLong(){
+            this.state ^= this.state >>> 12;
+            this.state ^= this.state << 25;
+            this.state ^= this.state >>> 27;
+            return this.state * 2685821657736338717L;
+        }
+
+        //about one bit in eight set.
+        long nextSparseLong(){
+            return nextLong() & nextLong() & nextLong();
+        }
+    }
+}
@@ -72,6 +72,19 @@ public abstract class Move {
         return null;
     }
 
+    /*
+    The Zobrist key of the board before this move with the moved piece lifted off its tile, the side
+    to move switched and the en passant pawn and castling rights taken out. Each execute() XORs in the
+    pieces it puts down, and the new board XORs in its own castling rights.
+    */
+    long calculateTransitionKey(){
+        return this.board.getZobristKey() ^
+               Zobrist.castlingKey(this.board.getCastlingRights()) ^
+               Zobrist.enPassantKey(this.board.getEnPassantPawn()) ^
+               Zobrist.sideToMoveChangeKey() ^
+               Zobrist.pieceKey(this.movedPiece);
+    }
+
     //where it is being moved to
     public int getDestinationCoordinate(){
         return this.destinationCoordinate;
@@ -100,9 +113,16 @@ public abstract class Move {
             builder.setPiece(piece);
         }
         //move the moved piece.
-        builder.setPiece(this.movedPiece.movePiece(this));
+        final Piece pieceMoved = this.movedPiece.movePiece(this);
+        builder.setPiece(pieceMoved);
         //set move maker to the opponent.
         builder.setMoveMaker(this.board.currentPlayer().getOpponent().getAlliance());
+        //the moved piece lands on the attacked piece and takes it off the board.
+        long positionKey = calculateTransitionKey() ^ Zobrist.pieceKey(pieceMoved);
+        if(isAttack()){
+            positionKey ^= Zobrist.pieceKey(getAttackedPiece());
+        }
+        builder.setPositionKey(positionKey);
         return builder.build();
     }
 
@@ -254,8 +274,12 @@ public abstract class Move {
                     builder.setPiece(piece);
                 }
             }
-            builder.setPiece(this.movedPiece.movePiece(this));
+            final Piece pieceMoved = this.movedPiece.movePiece(this);
+            builder.setPiece(pieceMoved);
             builder.setMoveMaker(this.board.currentPlayer().getOpponent().getAlliance());
+            builder.setPositionKey(calculateTransitionKey() ^
+                                   Zobrist.pieceKey(pieceMoved) ^
+                                   Zobrist.pieceKey(getAttackedPiece()));
             return builder.build();
         }
 
@@ -283,8 +307,14 @@ public abstract class Move {
             for(final Piece piece : pawnMovedBoard.currentPlayer().getOpponent().getActivePieces()){
                 builder.setPiece(piece);
             }
-            builder.setPiece(this.promotedPawn.getPromotionPiece().movePiece(this));
+            final Piece promotionPiece = this.promotedPawn.getPromotionPiece().movePiece(this);
+            builder.setPiece(promotionPiece);
             builder.setMoveMaker(pawnMovedBoard.currentPlayer().getAlliance());
+            //start from the board with the pawn moved and swap the pawn for the new piece.
+            builder.setPositionKey(pawnMovedBoard.getZobristKey() ^
+                                   Zobrist.castlingKey(pawnMovedBoard.getCastlingRights()) ^
+                                   Zobrist.pieceKey(pawnMovedBoard.getTile(this.destinationCoordinate).getPiece()) ^
+                                   Zobrist.pieceKey(promotionPiece));
             return builder.build();
         }
 
@@ -336,6 +366,9 @@ public abstract class Move {
             builder.setPiece(movedPawn);
             builder.setEnPassantPawn(movedPawn);
             builder.setMoveMaker(this.board.currentPlayer().getOpponent().getAlliance());
+            builder.setPositionKey(calculateTransitionKey() ^
+                                   Zobrist.pieceKey(movedPawn) ^
+                                   Zobrist.enPassantKey(movedPawn));
             return builder.build();
         }
 
@@ -346,7 +379,7 @@ public abstract class Move {
 
     }
 
-    static abstract class CastleMove extends Move {
+    public static abstract class CastleMove extends Move {
 
         protected final Rook castleRook;
         protected final int castleRookStart;
@@ -380,12 +413,29 @@ public abstract class Move {
             for (final Piece piece : this.board.currentPlayer().getOpponent().getActivePieces()){
                 builder.setPiece(piece);
             }
-            builder.setPiece(this.movedPiece.movePiece(this));
-            builder.setPiece(new Rook(this.castleRookDestination, this.castleRook.getPieceAlliance()));
+            final Piece movedKing = this.movedPiece.movePiece(this);
+            final Rook movedRook = new Rook(this.castleRookDestination, this.castleRook.getPieceAlliance());
+            builder.setPiece(movedKing);
+            builder.setPiece(movedRook);
             builder.setMoveMaker(this.board.currentPlayer().getOpponent().getAlliance());
+            builder.setPositionKey(calculateTransitionKey() ^
+                                   Zobrist.pieceKey(this.castleRook) ^
+                                   occupantKey(this.destinationCoordinate) ^
+                                   occupantKey(this.castleRookDestination) ^
+                                   Zobrist.pieceKey(movedKing) ^
+                                   Zobrist.pieceKey(movedRook));
             return builder.build();
         }
 
+        //whatever else stands where the king or the rook lands is replaced on the new board.
+        private long occupantKey(final int tileCoordinate){
+            final Piece occupant = this.board.getTile(tileCoordinate).getPiece();
+            if(occupant == null || occupant.equals(this.movedPiece) || occupant.equals(this.castleRook)){
+                return 0L;
+            }
+            return Zobrist.pieceKey(occupant);
+        }
+
         @Override
         public int hashCode(){
             final int prime = 31;
@@ -450,13 +500,39 @@ public abstract class Move {
         }
 
     }
-    static class NullMove extends Move {
+    /*
+    A pass: the side to move changes and nothing else does, except that an en passant capture is no
+    longer possible. NULL_MOVE has no board and stays what MoveFactory returns for a move that does not
+    exist; a null move made on a board passes there the way SearchBoard.makeNullMove() does in the search.
+    */
+    public static class NullMove extends Move {
         public NullMove() {
             super(null, 65);
         }
+
+        public NullMove(final Board board) {
+            super(board, 65);
+        }
+
         @Override
         public Board execute(){
-            throw new RuntimeException("Cannot execute null move!");
+            if(this.board == null){
+                throw new RuntimeException("Cannot execute null move!");
+            }
+            final Builder builder = new Builder();
+            for (final Piece piece : this.board.getWhitePieces()){
+                builder.setPiece(piece);
+            }
+            for (final Piece piece : this.board.getBlackPieces()){
+                builder.setPiece(piece);
+            }
+            builder.setMoveMaker(this.board.currentPlayer().getOpponent().getAlliance());
+            //the pieces stay where they are, so does their part of the key.
+            builder.setPositionKey(this.board.getZobristKey() ^
+                                   Zobrist.castlingKey(this.board.getCastlingRights()) ^
+                                   Zobrist.enPassantKey(this.board.getEnPassantPawn()) ^
+                                   Zobrist.sideToMoveChangeKey());
+            return builder.build();
         }
 
         @Override
@@ -0,0 +1,582 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Piece;
+
+import java.util.Arrays;
+
+/*
+The position the search plays its moves on. A Board is a snapshot: every move materializes a new one
+with its tiles, piece lists, players and both players' legal moves, which is what the GUI wants and far
+too much for a search that makes millions of moves only to take every one of them back. A SearchBoard
+is one position that changes in place: makeMove() plays a move, unmakeMove() restores the position
+before it from an undo stack, and once it exists nothing is allocated.
+
+It plays by the rules of Board, quirks included, and generates the moves in the order Board lists
+them: the pieces by tile and their moves by destination, the castles last. Castling only looks at the
+king, the tiles in between and a rook of either side on the corner, like Player.calculateKingCastles()
+does. A search on either one sees the same tree, which load() and findMove() rely on to go back and
+forth between them. A move that would take a king off the board, which Board cannot even build,
+makeMove() turns down like an illegal one.
+
+A move is an int: the tile it leaves in bits 6-11 and the tile it lands on in bits 0-5, which is what
+TranspositionTable.encodeMove() makes of a Move, and from bit 12 on its kind (QUIET to QUEEN_SIDE_CASTLE).
+*/
+public final class SearchBoard {
+
+    public static final int QUIET = 0;
+    public static final int CAPTURE = 1;
+    public static final int PAWN_JUMP = 2;
+    public static final int EN_PASSANT = 3;
+    public static final int PROMOTION = 4;
+    public static final int PROMOTION_CAPTURE = 5;
+    public static final int KING_SIDE_CASTLE = 6;
+    public static final int QUEEN_SIDE_CASTLE = 7;
+    //more than any position has, a move list of this size never overflows.
+    public static final int MAX_MOVES = 256;
+
+    private static final int NULL_MOVE = -1;
+    private static final int NO_PIECE = -1;
+    private static final int NO_TILE = -1;
+    private static final int INITIAL_UNDO_SIZE = 256;
+
+    private static final Alliance[] ALLIANCES = Alliance.values();
+    private static final Piece.PieceType[] PIECE_TYPES = Piece.PieceType.values();
+    private static final int WHITE = Alliance.WHITE.ordinal();
+    private static final int PAWN = Piece.PieceType.PAWN.ordinal();
+    private static final int KNIGHT = Piece.PieceType.KNIGHT.ordinal();
+    private static final int BISHOP = Piece.PieceType.BISHOP.ordinal();
+    private static final int ROOK = Piece.PieceType.ROOK.ordinal();
+    private static final int QUEEN = Piece.PieceType.QUEEN.ordinal();
+    private static final int KING = Piece.PieceType.KING.ordinal();
+
+    //indexed by alliance: the row pawns jump from and the row they promote on.
+    private static final long[] PAWN_START_ROWS = {0xFFL << 48, 0xFFL << 8};
+    private static final long[] PROMOTION_ROWS = {0xFFL, 0xFFL << 56};
+    //indexed by alliance and side, king side first: where king and rook go and what they need.
+    private static final int[][] CASTLE_KING_DESTINATIONS = {{62, 58}, {6, 2}};
+    private static final int[][] CASTLE_ROOK_STARTS = {{63, 56}, {7, 0}};
+    private static final int[][] CASTLE_ROOK_DESTINATIONS = {{61, 59}, {5, 3}};
+    private static final long[][] CASTLE_EMPTY_TILES = {
+            {tiles(61, 62), tiles(57, 58, 59)},
+            {tiles(5, 6), tiles(1, 2, 3)}
+    };
+    private static final int[][][] CASTLE_SAFE_TILES = {
+            {{61, 62}, {58, 59}},
+            {{5, 6}, {2, 3}}
+    };
+
+    //one bitboard per piece type and alliance, indexed like Board's and the Zobrist keys.
+    private final long[] pieceBitBoards = new long[PIECE_TYPES.length * 2];
+    private final long[] occupancy = new long[ALLIANCES.length];
+    //the piece index on every tile, NO_PIECE on the empty ones.
+    private final int[] pieces = new int[BoardUtils.NUM_TILES];
+    private int sideToMove;
+    //the tile of the pawn that just jumped, like Board's en passant pawn.
+    private int enPassantTile;
+    private int castlingRights;
+    private long zobristKey;
+
+    //the undo stack: the move, what it took off the board and the state it cannot recompute.
+    private int[] undoMoves = new int[INITIAL_UNDO_SIZE];
+    private int[] undoCaptures = new int[INITIAL_UNDO_SIZE];
+    private int[] undoEnPassantTiles = new int[INITIAL_UNDO_SIZE];
+    private int[] undoCastlingRights = new int[INITIAL_UNDO_SIZE];
+    private long[] undoKeys = new long[INITIAL_UNDO_SIZE];
+    private int undoCount;
+
+    //the moves hasLegalMove() tries, it never runs inside another call of itself.
+    private final int[] scratchMoves = new int[MAX_MOVES];
+
+    public SearchBoard(){
+        Arrays.fill(this.pieces, NO_PIECE);
+        this.enPassantTile = NO_TILE;
+    }
+
+    public SearchBoard(final Board board){
+        this();
+        load(board);
+    }
+
+    //take over the position of the board, forgetting the moves made so far.
+    public void load(final Board board){
+        Arrays.fill(this.pieceBitBoards, BitBoards.EMPTY);
+        Arrays.fill(this.occupancy, BitBoards.EMPTY);
+        Arrays.fill(this.pieces, NO_PIECE);
+        for(final Piece piece : board.getWhitePieces()){
+            putPiece(pieceIndex(piece.getPieceType().ordinal(), piece.getPieceAlliance().ordinal()),
+                     piece.getPiecePosition());
+        }
+        for(final Piece piece : board.getBlackPieces()){
+            putPiece(pieceIndex(piece.getPieceType().ordinal(), piece.getPieceAlliance().ordinal()),
+                     piece.getPiecePosition());
+        }
+        this.sideToMove = board.currentPlayer().getAlliance().ordinal();
+        this.enPassantTile = board.getEnPassantPawn() != null ? board.getEnPassantPawn().getPiecePosition() : NO_TILE;
+        this.castlingRights = board.getCastlingRights();
+        this.zobristKey = board.getZobristKey();
+        this.undoCount = 0;
+    }
+
+    public Alliance getSideToMove(){
+        return ALLIANCES[this.sideToMove];
+    }
+
+    //the same key Board gives the same position.
+    public long getZobristKey(){
+        return this.zobristKey;
+    }
+
+    public int getCastlingRights(){
+        return this.castlingRights;
+    }
+
+    public long getPieceBitBoard(final Piece.PieceType pieceType, final Alliance alliance){
+        return this.pieceBitBoards[pieceIndex(pieceType.ordinal(), alliance.ordinal())];
+    }
+
+    public long getOccupancy(final Alliance alliance){
+        return this.occupancy[alliance.ordinal()];
+    }
+
+    public long getOccupancy(){
+        return this.occupancy[0] | this.occupancy[1];
+    }
+
+    //the type of the piece on the tile, null when it is empty.
+    public Piece.PieceType getPieceType(final int tileCoordinate){
+        final int piece = this.pieces[tileCoordinate];
+        return piece == NO_PIECE ? null : PIECE_TYPES[piece >> 1];
+    }
+
+    public Alliance getPieceAlliance(final int tileCoordinate){
+        final int piece = this.pieces[tileCoordinate];
+        return piece == NO_PIECE ? null : ALLIANCES[piece & 1];
+    }
+
+    //whether the side to move is in check.
+    public boolean isInCheck(){
+        return isInCheck(this.sideToMove);
+    }
+
+    public boolean isInCheck(final Alliance alliance){
+        return isInCheck(alliance.ordinal());
+    }
+
+    public boolean isTileAttacked(final int tileCoordinate, final Alliance attacker){
+        return isTileAttacked(tileCoordinate, attacker.ordinal());
+    }
+
+    /*
+    Plays the move, which has to come from generateMoves() of this position. A move that leaves the own
+    king attacked is taken back at once and false returned, otherwise the position is the one after it
+    until unmakeMove().
+    */
+    public boolean makeMove(final int move){
+        final int us = this.sideToMove;
+        final int them = us ^ 1;
+        final int from = getFrom(move);
+        final int to = getTo(move);
+        final int kind = getKind(move);
+        pushUndo(move);
+        this.zobristKey ^= Zobrist.castlingKey(this.castlingRights) ^ Zobrist.enPassantKey(this.enPassantTile) ^
+                           Zobrist.sideToMoveChangeKey();
+        int captures;
+        if(kind == KING_SIDE_CASTLE || kind == QUEEN_SIDE_CASTLE){
+            final int side = kind == KING_SIDE_CASTLE ? 0 : 1;
+            final int rookDestination = CASTLE_ROOK_DESTINATIONS[us][side];
+            final int king = removePiece(from);
+            final int rook = removePiece(CASTLE_ROOK_STARTS[us][side]);
+            //whatever else stands where the king or the rook lands is replaced, like on Board.
+            captures = capturePiece(to);
+            putPiece(king, to);
+            captures |= capturePiece(rookDestination) << 10;
+            putPiece(rook, rookDestination);
+        } else {
+            final int piece = removePiece(from);
+            captures = capturePiece(kind == EN_PASSANT ? this.enPassantTile : to);
+            putPiece(kind == PROMOTION || kind == PROMOTION_CAPTURE ? pieceIndex(QUEEN, us) : piece, to);
+        }
+        this.undoCaptures[this.undoCount - 1] = captures;
+        this.enPassantTile = kind == PAWN_JUMP ? to : NO_TILE;
+        this.sideToMove = them;
+        this.castlingRights = calculateCastlingRights();
+        this.zobristKey ^= Zobrist.castlingKey(this.castlingRights) ^ Zobrist.enPassantKey(this.enPassantTile);
+        if(this.pieceBitBoards[pieceIndex(KING, us)] == BitBoards.EMPTY ||
+           this.pieceBitBoards[pieceIndex(KING, them)] == BitBoards.EMPTY ||
+           isInCheck(us)){
+            unmakeMove();
+            return false;
+        }
+        return true;
+    }
+
+    //pass: only the side to move changes, and an en passant capture is no longer possible.
+    public void makeNullMove(){
+        pushUndo(NULL_MOVE);
+        this.undoCaptures[this.undoCount - 1] = 0;
+        this.zobristKey ^= Zobrist.enPassantKey(this.enPassantTile) ^ Zobrist.sideToMoveChangeKey();
+        this.enPassantTile = NO_TILE;
+        this.sideToMove ^= 1;
+    }
+
+    //takes back the last move or null move that is still on the stack.
+    public void unmakeMove(){
+        final int index = --this.undoCount;
+        final int move = this.undoMoves[index];
+        this.sideToMove ^= 1;
+        if(move != NULL_MOVE){
+            final int us = this.sideToMove;
+            final int from = getFrom(move);
+            final int to = getTo(move);
+            final int kind = getKind(move);
+            final int captures = this.undoCaptures[index];
+            if(kind == KING_SIDE_CASTLE || kind == QUEEN_SIDE_CASTLE){
+                final int side = kind == KING_SIDE_CASTLE ? 0 : 1;
+                final int rookDestination = CASTLE_ROOK_DESTINATIONS[us][side];
+                final int rook = removePiece(rookDestination);
+                restorePiece(captures >>> 10);
+                final int king = removePiece(to);
+                restorePiece(captures & 0x3FF);
+                putPiece(rook, CASTLE_ROOK_STARTS[us][side]);
+                putPiece(king, from);
+            } else {
+                final int piece = removePiece(to);
+                restorePiece(captures);
+                putPiece(kind == PROMOTION || kind == PROMOTION_CAPTURE ? pieceIndex(PAWN, us) : piece, from);
+            }
+        }
+        this.enPassantTile = this.undoEnPassantTiles[index];
+        this.castlingRights = this.undoCastlingRights[index];
+        this.zobristKey = this.undoKeys[index];
+    }
+
+    /*
+    Writes the moves of the side to move into the array and returns how many there are. Like a Player's
+    legal moves they may still leave the own king attacked, makeMove() finds out. With capturesOnly
+    only the moves that take a piece, the ones Move.isAttack() says so of.
+    */
+    public int generateMoves(final int[] moves, final boolean capturesOnly){
+        final int us = this.sideToMove;
+        final long targets = capturesOnly ? this.occupancy[us ^ 1] : ~this.occupancy[us];
+        final long occupied = getOccupancy();
+        int count = 0;
+        long ownPieces = this.occupancy[us];
+        while(ownPieces != BitBoards.EMPTY){
+            final int tile = BitBoards.firstTile(ownPieces);
+            ownPieces = BitBoards.removeFirstTile(ownPieces);
+            final int type = this.pieces[tile] >> 1;
+            if(type == PAWN){
+                count = addPawnMoves(moves, count, tile, us, capturesOnly);
+            } else {
+                count = addMoves(moves, count, tile, attacks(type, tile, occupied) & targets);
+            }
+        }
+        if(!capturesOnly){
+            final int castles = availableCastles(us);
+            final long king = this.pieceBitBoards[pieceIndex(KING, us)];
+            if((castles & 1) != 0){
+                moves[count++] = encode(BitBoards.firstTile(king), CASTLE_KING_DESTINATIONS[us][0], KING_SIDE_CASTLE);
+            }
+            if((castles & 2) != 0){
+                moves[count++] = encode(BitBoards.firstTile(king), CASTLE_KING_DESTINATIONS[us][1], QUEEN_SIDE_CASTLE);
+            }
+        }
+        return count;
+    }
+
+    /*
+    How many moves the alliance has, as many as Player.getLegalMoves() lists for it whoever is to move,
+    castles included. Counted on the bitboards, without writing a single move down.
+    */
+    public int countMoves(final Alliance alliance){
+        final int us = alliance.ordinal();
+        final long own = this.occupancy[us];
+        final long enemy = this.occupancy[us ^ 1];
+        final long occupied = own | enemy;
+        int count = 0;
+        long ownPieces = own & ~this.pieceBitBoards[pieceIndex(PAWN, us)];
+        while(ownPieces != BitBoards.EMPTY){
+            final int tile = BitBoards.firstTile(ownPieces);
+            ownPieces = BitBoards.removeFirstTile(ownPieces);
+            count += Long.bitCount(attacks(this.pieces[tile] >> 1, tile, occupied) & ~own);
+        }
+        final long pawns = this.pieceBitBoards[pieceIndex(PAWN, us)];
+        final long empty = ~occupied;
+        final long pushes = (us == WHITE ? pawns >>> 8 : pawns << 8) & empty;
+        final long startPushes = (us == WHITE ? (pawns & PAWN_START_ROWS[us]) >>> 8 :
+                                                (pawns & PAWN_START_ROWS[us]) << 8) & empty;
+        final long jumps = (us == WHITE ? startPushes >>> 8 : startPushes << 8) & empty;
+        count += Long.bitCount(pushes) + Long.bitCount(jumps);
+        long capturingPawns = pawns;
+        while(capturingPawns != BitBoards.EMPTY){
+            final int tile = BitBoards.firstTile(capturingPawns);
+            capturingPawns = BitBoards.removeFirstTile(capturingPawns);
+            count += Long.bitCount(BitBoards.pawnAttacks(tile, alliance) & enemy);
+        }
+        if(this.enPassantTile != NO_TILE && (this.pieces[this.enPassantTile] & 1) != us){
+            final int target = this.enPassantTile + (us == WHITE ? -BoardUtils.NUM_TILES_PER_ROW : BoardUtils.NUM_TILES_PER_ROW);
+            if(!BitBoards.contains(occupied, target)){
+                //the pawns that attack the target are the ones a pawn of the other side on it would attack.
+                count += Long.bitCount(BitBoards.pawnAttacks(target, ALLIANCES[us ^ 1]) & pawns);
+            }
+        }
+        return count + Integer.bitCount(availableCastles(us));
+    }
+
+    //whether the side to move has a move that does not leave its king attacked.
+    public boolean hasLegalMove(){
+        final int count = generateMoves(this.scratchMoves, false);
+        for(int i = 0; i < count; i++){
+            if(makeMove(this.scratchMoves[i])){
+                unmakeMove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static int getFrom(final int move){
+        return (move >>> 6) & 0x3F;
+    }
+
+    public static int getTo(final int move){
+        return move & 0x3F;
+    }
+
+    public static int getKind(final int move){
+        return move >>> 12;
+    }
+
+    //the moves Move.isAttack() is true for.
+    public static boolean isCapture(final int move){
+        final int kind = getKind(move);
+        return kind == CAPTURE || kind == EN_PASSANT || kind == PROMOTION_CAPTURE;
+    }
+
+    public static boolean isPromotion(final int move){
+        final int kind = getKind(move);
+        return kind == PROMOTION || kind == PROMOTION_CAPTURE;
+    }
+
+    //the int a move of the board is here, equal to the one generateMoves() gives for it.
+    public static int encodeMove(final Move move){
+        final int kind;
+        if(move instanceof Move.KingSideCastleMove){
+            kind = KING_SIDE_CASTLE;
+        } else if(move instanceof Move.QueenSideCastleMove){
+            kind = QUEEN_SIDE_CASTLE;
+        } else if(move instanceof Move.PawnPromotion){
+            kind = move.isAttack() ? PROMOTION_CAPTURE : PROMOTION;
+        } else if(move instanceof Move.PawnEnpassantAttackMove){
+            kind = EN_PASSANT;
+        } else if(move instanceof Move.PawnJump){
+            kind = PAWN_JUMP;
+        } else {
+            kind = move.isAttack() ? CAPTURE : QUIET;
+        }
+        return encode(move.getCurrentCoordinate(), move.getDestinationCoordinate(), kind);
+    }
+
+    //the move of the board the int stands for, null when the board has no such move.
+    public static Move findMove(final Board board, final int move){
+        for(final Move boardMove : board.currentPlayer().getLegalMoves()){
+            if(encodeMove(boardMove) == move){
+                return boardMove;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString(){
+        final StringBuilder builder = new StringBuilder();
+        for(int i = 0; i < BoardUtils.NUM_TILES; i++){
+            final int piece = this.pieces[i];
+            final String tileText = piece == NO_PIECE ? "-" :
+                                    ALLIANCES[piece & 1].isWhite() ? PIECE_TYPES[piece >> 1].toString() :
+                                    PIECE_TYPES[piece >> 1].toString().toLowerCase();
+            builder.append(String.format("%3s", tileText));
+            if((i + 1) % BoardUtils.NUM_TILES_PER_ROW == 0){
+                builder.append("\n");
+            }
+        }
+        return builder.toString();
+    }
+
+    private static int encode(final int from, final int to, final int kind){
+        return (kind << 12) | (from << 6) | to;
+    }
+
+    private static int pieceIndex(final int type, final int alliance){
+        return type * 2 + alliance;
+    }
+
+    private static long tiles(final int... tileCoordinates){
+        long bitBoard = BitBoards.EMPTY;
+        for(final int tileCoordinate : tileCoordinates){
+            bitBoard |= BitBoards.bit(tileCoordinate);
+        }
+        return bitBoard;
+    }
+
+    //what a piece of the type other than a pawn attacks from the tile.
+    private static long attacks(final int type, final int tile, final long occupied){
+        if(type == KNIGHT){
+            return BitBoards.knightAttacks(tile);
+        } else if(type == BISHOP){
+            return BitBoards.bishopAttacks(tile, occupied);
+        } else if(type == ROOK){
+            return BitBoards.rookAttacks(tile, occupied);
+        } else if(type == QUEEN){
+            return BitBoards.queenAttacks(tile, occupied);
+        }
+        return BitBoards.kingAttacks(tile);
+    }
+
+    private int addMoves(final int[] moves, int count, final int from, final long destinations){
+        final long enemy = this.occupancy[(this.pieces[from] & 1) ^ 1];
+        long remaining = destinations;
+        while(remaining != BitBoards.EMPTY){
+            final int to = BitBoards.firstTile(remaining);
+            remaining = BitBoards.removeFirstTile(remaining);
+            moves[count++] = encode(from, to, BitBoards.contains(enemy, to) ? CAPTURE : QUIET);
+        }
+        return count;
+    }
+
+    //in the order of Pawn.calculateLegalMoves(): the step, the jump, the captures, en passant.
+    private int addPawnMoves(final int[] moves, int count, final int tile, final int us, final boolean capturesOnly){
+        final long occupied = getOccupancy();
+        final int forward = us == WHITE ? -BoardUtils.NUM_TILES_PER_ROW : BoardUtils.NUM_TILES_PER_ROW;
+        final int step = tile + forward;
+        if(!capturesOnly && BoardUtils.isValidTileCoordinate(step) && !BitBoards.contains(occupied, step)){
+            moves[count++] = encode(tile, step, BitBoards.contains(PROMOTION_ROWS[us], step) ? PROMOTION : QUIET);
+            final int jump = step + forward;
+            if(BitBoards.contains(PAWN_START_ROWS[us], tile) && !BitBoards.contains(occupied, jump)){
+                moves[count++] = encode(tile, jump, PAWN_JUMP);
+            }
+        }
+        final long attacks = BitBoards.pawnAttacks(tile, ALLIANCES[us]);
+        long captures = attacks & this.occupancy[us ^ 1];
+        while(captures != BitBoards.EMPTY){
+            final int to = BitBoards.firstTile(captures);
+            captures = BitBoards.removeFirstTile(captures);
+            moves[count++] = encode(tile, to, BitBoards.contains(PROMOTION_ROWS[us], to) ? PROMOTION_CAPTURE : CAPTURE);
+        }
+        if(this.enPassantTile != NO_TILE && (this.pieces[this.enPassantTile] & 1) != us){
+            final int target = this.enPassantTile + forward;
+            if(BitBoards.contains(attacks & ~occupied, target)){
+                moves[count++] = encode(tile, target, EN_PASSANT);
+            }
+        }
+        return count;
+    }
+
+    //bit 0 for the king side castle, bit 1 for the queen side one, checked like the players do.
+    private int availableCastles(final int us){
+        final int them = us ^ 1;
+        if(isInCheck(us)){
+            return 0;
+        }
+        final long occupied = getOccupancy();
+        final long rooks = this.pieceBitBoards[pieceIndex(ROOK, 0)] | this.pieceBitBoards[pieceIndex(ROOK, 1)];
+        int castles = 0;
+        for(int side = 0; side < 2; side++){
+            if((occupied & CASTLE_EMPTY_TILES[us][side]) == BitBoards.EMPTY &&
+               BitBoards.contains(rooks, CASTLE_ROOK_STARTS[us][side]) &&
+               !isTileAttacked(CASTLE_SAFE_TILES[us][side][0], them) &&
+               !isTileAttacked(CASTLE_SAFE_TILES[us][side][1], them)){
+                castles |= 1 << side;
+            }
+        }
+        return castles;
+    }
+
+    //false as well without a king, a position makeMove() never leaves behind.
+    private boolean isInCheck(final int alliance){
+        final long king = this.pieceBitBoards[pieceIndex(KING, alliance)];
+        return king != BitBoards.EMPTY && isTileAttacked(BitBoards.firstTile(king), alliance ^ 1);
+    }
+
+    //see Board.isTileAttacked().
+    private boolean isTileAttacked(final int tileCoordinate, final int attacker){
+        if((BitBoards.pawnAttacks(tileCoordinate, ALLIANCES[attacker ^ 1]) & this.pieceBitBoards[pieceIndex(PAWN, attacker)]) != 0 ||
+           (BitBoards.knightAttacks(tileCoordinate) & this.pieceBitBoards[pieceIndex(KNIGHT, attacker)]) != 0 ||
+           (BitBoards.kingAttacks(tileCoordinate) & this.pieceBitBoards[pieceIndex(KING, attacker)]) != 0){
+            return true;
+        }
+        final long queens = this.pieceBitBoards[pieceIndex(QUEEN, attacker)];
+        final long occupied = getOccupancy();
+        return (BitBoards.rookAttacks(tileCoordinate, occupied) &
+                (this.pieceBitBoards[pieceIndex(ROOK, attacker)] | queens)) != 0 ||
+               (BitBoards.bishopAttacks(tileCoordinate, occupied) &
+                (this.pieceBitBoards[pieceIndex(BISHOP, attacker)] | queens)) != 0;
+    }
+
+    //see Board.calculateCastlingRights(), a side keeps the right to castle with each rook on its corner.
+    private int calculateCastlingRights(){
+        int rights = 0;
+        for(int alliance = 0; alliance < ALLIANCES.length; alliance++){
+            if(this.pieceBitBoards[pieceIndex(KING, alliance)] == BitBoards.EMPTY){
+                continue;
+            }
+            final long rooks = this.pieceBitBoards[pieceIndex(ROOK, alliance)];
+            if(BitBoards.contains(rooks, CASTLE_ROOK_STARTS[alliance][0])){
+                rights |= alliance == WHITE ? Board.WHITE_KING_SIDE_CASTLE : Board.BLACK_KING_SIDE_CASTLE;
+            }
+            if(BitBoards.contains(rooks, CASTLE_ROOK_STARTS[alliance][1])){
+                rights |= alliance == WHITE ? Board.WHITE_QUEEN_SIDE_CASTLE : Board.BLACK_QUEEN_SIDE_CASTLE;
+            }
+        }
+        return rights;
+    }
+
+    private void putPiece(final int piece, final int tile){
+        final long bit = BitBoards.bit(tile);
+        this.pieceBitBoards[piece] |= bit;
+        this.occupancy[piece & 1] |= bit;
+        this.pieces[tile] = piece;
+        this.zobristKey ^= Zobrist.pieceKey(piece, tile);
+    }
+
+    private int removePiece(final int tile){
+        final int piece = this.pieces[tile];
+        final long bit = BitBoards.bit(tile);
+        this.pieceBitBoards[piece] &= ~bit;
+        this.occupancy[piece & 1] &= ~bit;
+        this.pieces[tile] = NO_PIECE;
+        this.zobristKey ^= Zobrist.pieceKey(piece, tile);
+        return piece;
+    }
+
+    //takes whatever stands on the tile off the board, packed for restorePiece(): piece + 1 and tile, 0 for nothing.
+    private int capturePiece(final int tile){
+        if(this.pieces[tile] == NO_PIECE){
+            return 0;
+        }
+        return ((removePiece(tile) + 1) << 6) | tile;
+    }
+
+    private void restorePiece(final int capture){
+        if(capture != 0){
+            putPiece((capture >>> 6) - 1, capture & 0x3F);
+        }
+    }
+
+    private void pushUndo(final int move){
+        if(this.undoCount == this.undoMoves.length){
+            final int size = this.undoMoves.length * 2;
+            this.undoMoves = Arrays.copyOf(this.undoMoves, size);
+            this.undoCaptures = Arrays.copyOf(this.undoCaptures, size);
+            this.undoEnPassantTiles = Arrays.copyOf(this.undoEnPassantTiles, size);
+            this.undoCastlingRights = Arrays.copyOf(this.undoCastlingRights, size);
+            this.undoKeys = Arrays.copyOf(this.undoKeys, size);
+        }
+        this.undoMoves[this.undoCount] = move;
+        this.undoEnPassantTiles[this.undoCount] = this.enPassantTile;
+        this.undoCastlingRights[this.undoCount] = this.castlingRights;
+        this.undoKeys[this.undoCount] = this.zobristKey;
+        this.undoCount++;
+    }
+}
@@ -0,0 +1,93 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Pawn;
+import com.chess.engine.pieces.Piece;
+
+import java.util.Random;
+
+/*
+Zobrist hashing: every (piece, tile) pair, the side to move, every set of castling rights and every
+en passant pawn gets a random 64 bit number, and a position's key is the XOR of the numbers that apply
+to it. XOR undoes itself, so a move updates the key by XORing out what it removes and XORing in what it
+adds, without looking at the other tiles.
+*/
+public final class Zobrist {
+
+    //a fixed seed keeps the keys the same from one run to the next, books and tables stored on disk rely on it.
+    private static final long SEED = 0x4A436865737331L;
+
+    private static final long[][] PIECE_KEYS = new long[Piece.PieceType.values().length * 2][BoardUtils.NUM_TILES];
+    private static final long[] CASTLING_KEYS = new long[16];
+    private static final long[] EN_PASSANT_KEYS = new long[BoardUtils.NUM_TILES];
+    private static final long BLACK_TO_MOVE_KEY;
+
+    static {
+        final Random random = new Random(SEED);
+        for(final long[] pieceKeys : PIECE_KEYS){
+            for(int i = 0; i < BoardUtils.NUM_TILES; i++){
+                pieceKeys[i] = random.nextLong();
+            }
+        }
+        //no castling rights at all hashes to nothing.
+        for(int i = 1; i < CASTLING_KEYS.length; i++){
+            CASTLING_KEYS[i] = random.nextLong();
+        }
+        for(int i = 0; i < BoardUtils.NUM_TILES; i++){
+            EN_PASSANT_KEYS[i] = random.nextLong();
+        }
+        BLACK_TO_MOVE_KEY = random.nextLong();
+    }
+
+    //prevent the user from instantiating this class.
+    private Zobrist(){
+        throw new RuntimeException("You cannot instantiate me!");
+    }
+
+    public static long pieceKey(final Piece piece){
+        return pieceKey(piece.getPieceType(), piece.getPieceAlliance(), piece.getPiecePosition());
+    }
+
+    public static long pieceKey(final Piece.PieceType pieceType, final Alliance alliance, final int tileCoordinate){
+        return PIECE_KEYS[pieceType.ordinal() * 2 + alliance.ordinal()][tileCoordinate];
+    }
+
+    //the same by the piece index SearchBoard keeps, type ordinal times two plus alliance ordinal.
+    static long pieceKey(final int pieceIndex, final int tileCoordinate){
+        return PIECE_KEYS[pieceIndex][tileCoordinate];
+    }
+
+    public static long castlingKey(final int castlingRights){
+        return CASTLING_KEYS[castlingRights];
+    }
+
+    public static long enPassantKey(final Pawn enPassantPawn){
+        return enPassantPawn != null ? EN_PASSANT_KEYS[enPassantPawn.getPiecePosition()] : 0L;
+    }
+
+    //by the tile of the pawn that jumped, negative for none.
+    static long enPassantKey(final int tileCoordinate){
+        return tileCoordinate >= 0 ? EN_PASSANT_KEYS[tileCoordinate] : 0L;
+    }
+
+    public static long sideToMoveKey(final Alliance alliance){
+        return alliance.isBlack() ? BLACK_TO_MOVE_KEY : 0L;
+    }
+
+    //switching the side to move toggles the same key both ways.
+    public static long sideToMoveChangeKey(){
+        return BLACK_TO_MOVE_KEY;
+    }
+
+    //hash a board from scratch, everything but the castling rights.
+    static long calculatePositionKey(final Board board, final Alliance nextMoveMaker){
+        long key = sideToMoveKey(nextMoveMaker) ^ enPassantKey(board.getEnPassantPawn());
+        for(final Piece piece : board.getWhitePieces()){
+            key ^= pieceKey(piece);
+        }
+        for(final Piece piece : board.getBlackPieces()){
+            key ^= pieceKey(piece);
+        }
+        return key;
+    }
+}
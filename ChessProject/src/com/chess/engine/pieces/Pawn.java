@@ -1,6 +1,7 @@
 package com.chess.engine.pieces;
 
 import com.chess.engine.Alliance;
+import com.chess.engine.board.BitBoards;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.BoardUtils;
 import com.chess.engine.board.Move;
@@ -16,8 +17,6 @@ import static com.chess.engine.pieces.Piece.PieceType.PAWN;
 
 public class Pawn extends Piece {
 
-    private final static int[] CANDIDATE_MOVE_COORDINATE = {8, 16, 7, 9};
-
     public Pawn(final int piecePosition, final Alliance pieceAlliance) {
         super(PAWN, piecePosition, pieceAlliance, true);
     }
@@ -26,99 +25,49 @@ public class Pawn extends Piece {
     @Override
     public Collection<Move> calculateLegalMoves(final Board board) {
         final List<Move> legalMoves = new ArrayList<>();
-
-        for (final int currentCandidateOffset : CANDIDATE_MOVE_COORDINATE) {
-            //apply offset to piece position, but it would multiply by 1 if piece is black, and by -1 if piece is white.
-            final int candidateDestinationCoordinate = this.piecePosition + (this.pieceAlliance.getDirection() * currentCandidateOffset);
-
-            if (!BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
-                continue;
+        final long occupied = board.getOccupancy();
+        //one row forward is -8 for white and +8 for black.
+        final int forward = this.pieceAlliance.getDirection() * BoardUtils.NUM_TILES_PER_ROW;
+        final int candidateDestinationCoordinate = this.piecePosition + forward;
+
+        //one step forward onto an empty tile, and two from the starting row if both tiles are empty.
+        if (BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate) &&
+            !BitBoards.contains(occupied, candidateDestinationCoordinate)) {
+            if (this.pieceAlliance.isPawnPromotionSquare(candidateDestinationCoordinate)) {
+                legalMoves.add(new PawnPromotion(new PawnMove(board, this, candidateDestinationCoordinate)));
+            } else {
+                legalMoves.add(new PawnMove(board, this, candidateDestinationCoordinate));
             }
-            //if you are moving one tile forward and tile is not occupied.
-            if (currentCandidateOffset == 8 && !board.getTile(candidateDestinationCoordinate).isTileOccupied()) {
-                if (this.pieceAlliance.isPawnPromotionSquare(candidateDestinationCoordinate)) {
-                    legalMoves.add(new PawnPromotion(new PawnMove(board, this, candidateDestinationCoordinate)));
-                } else {
-                    legalMoves.add(new PawnMove(board, this, candidateDestinationCoordinate));
-                }
-                //check if offset available.
-            } else if (currentCandidateOffset == 16 &&
-                    //check if this is the pawn's first move.
-                    this.isFirstMove() &&
-                    //check if the piece is on second row and it's a black piece to allow jumping two steps.
-                    ((BoardUtils.SECOND_RANK[this.piecePosition] && this.getPieceAlliance().isWhite()) ||
-                            //check if the piece is on seventh row and it's a white piece to allow jumping two steps.
-                            (BoardUtils.SEVENTH_RANK[this.piecePosition] && this.getPieceAlliance().isBlack()))) {
-                final int behindCandidateDestinationCoordinate = this.piecePosition + (this.pieceAlliance.getDirection() * 8);
-                //if the behind Candidate is not occupied
-                if (!board.getTile(behindCandidateDestinationCoordinate).isTileOccupied()
-                        //and the desired candidate is not occupied.
-                        // execute if statement.
-                        && !board.getTile(candidateDestinationCoordinate).isTileOccupied()) {
-                    legalMoves.add(new PawnJump(board, this, candidateDestinationCoordinate));
-                }
-
-            } else
-                //check if pawn can attack on its left.
-                if (currentCandidateOffset == 7 &&
-                        //if piece is not on 8th column & the piece is white.
-                        !((BoardUtils.EIGHTH_COLUMN[this.piecePosition] && this.pieceAlliance.isWhite() ||
-                                //if piece is not 1st column & the piece is black.
-                                (BoardUtils.FIRST_COLUMN[this.piecePosition] && this.pieceAlliance.isBlack())))) {
-
-                    //check if the tile we desire to attack is occupied.
-                    if (board.getTile(candidateDestinationCoordinate).isTileOccupied()) {
-
-                        //if occupied give me information about the piece.
-                        final Piece pieceOnCandidate = board.getTile(candidateDestinationCoordinate).getPiece();
-                        //if piece designated is opposite to the moving piece.
-                        if (this.pieceAlliance != pieceOnCandidate.getPieceAlliance()) {
-                            if (this.pieceAlliance.isPawnPromotionSquare(candidateDestinationCoordinate)) {
-                                legalMoves.add(new PawnPromotion(new PawnAttackMove(board, this, candidateDestinationCoordinate, pieceOnCandidate)));
-                            } else {
-                                //add a new move.
-                                legalMoves.add(new PawnAttackMove(board, this, candidateDestinationCoordinate, pieceOnCandidate));
-                            }
-                        }
-                    } else if (board.getEnPassantPawn() != null) {
-                        if (board.getEnPassantPawn().getPiecePosition() == (this.piecePosition + (this.pieceAlliance.getOppositeDirection()))) {
-                            final Piece pieceOnCandidate = board.getEnPassantPawn();
-                            if (this.pieceAlliance != pieceOnCandidate.getPieceAlliance()) {
-                                legalMoves.add(new PawnEnpassantAttackMove(board, this, candidateDestinationCoordinate, pieceOnCandidate));
-                            }
-                        }
-                    }
-                } else
-                    //check if pawn can attack on its right
-                    if (currentCandidateOffset == 9 &&
-                            //if piece is not on 8th column & the piece is black.
-                            !((BoardUtils.EIGHTH_COLUMN[this.piecePosition] && this.pieceAlliance.isBlack() ||
-                                    //if piece is not 1st column & the piece is white.
-                                    (BoardUtils.FIRST_COLUMN[this.piecePosition] && this.pieceAlliance.isWhite())))) {
+            final int jumpDestinationCoordinate = candidateDestinationCoordinate + forward;
+            if (this.isFirstMove() &&
+                ((BoardUtils.SECOND_RANK[this.piecePosition] && this.pieceAlliance.isWhite()) ||
+                 (BoardUtils.SEVENTH_RANK[this.piecePosition] && this.pieceAlliance.isBlack())) &&
+                !BitBoards.contains(occupied, jumpDestinationCoordinate)) {
+                legalMoves.add(new PawnJump(board, this, jumpDestinationCoordinate));
+            }
+        }
 
-                        //check if the tile we desire to attack is occupied.
-                        if (board.getTile(candidateDestinationCoordinate).isTileOccupied()) {
+        //the diagonal tiles in front, taking an enemy piece on them.
+        final long attacks = BitBoards.pawnAttacks(this.piecePosition, this.pieceAlliance);
+        long captures = attacks & occupied & ~board.getOccupancy(this.pieceAlliance);
+        while (captures != BitBoards.EMPTY) {
+            final int captureCoordinate = BitBoards.firstTile(captures);
+            captures = BitBoards.removeFirstTile(captures);
+            final Piece pieceOnCandidate = board.getTile(captureCoordinate).getPiece();
+            if (this.pieceAlliance.isPawnPromotionSquare(captureCoordinate)) {
+                legalMoves.add(new PawnPromotion(new PawnAttackMove(board, this, captureCoordinate, pieceOnCandidate)));
+            } else {
+                legalMoves.add(new PawnAttackMove(board, this, captureCoordinate, pieceOnCandidate));
+            }
+        }
 
-                            //if occupied give me information about the piece.
-                            final Piece pieceOnCandidate = board.getTile(candidateDestinationCoordinate).getPiece();
-                            //if piece designated is opposite to the moving piece.
-                            if (this.pieceAlliance != pieceOnCandidate.getPieceAlliance()) {
-                                if (this.pieceAlliance.isPawnPromotionSquare(candidateDestinationCoordinate)) {
-                                    legalMoves.add(new PawnPromotion(new PawnAttackMove(board, this, candidateDestinationCoordinate, pieceOnCandidate)));
-                                } else {
-                                    //add a new move.
-                                    legalMoves.add(new PawnAttackMove(board, this, candidateDestinationCoordinate, pieceOnCandidate));
-                                }
-                            }
-                        } else if (board.getEnPassantPawn() != null) {
-                            if (board.getEnPassantPawn().getPiecePosition() == (this.piecePosition - (this.pieceAlliance.getOppositeDirection()))) {
-                                final Piece pieceOnCandidate = board.getEnPassantPawn();
-                                if (this.pieceAlliance != pieceOnCandidate.getPieceAlliance()) {
-                                    legalMoves.add(new PawnEnpassantAttackMove(board, this, candidateDestinationCoordinate, pieceOnCandidate));
-                                }
-                            }
-                        }
-                    }
+        //en passant: the enemy pawn that just jumped past us is taken on the empty tile it jumped over.
+        final Pawn enPassantPawn = board.getEnPassantPawn();
+        if (enPassantPawn != null && enPassantPawn.getPieceAlliance() != this.pieceAlliance) {
+            final int enPassantCoordinate = enPassantPawn.getPiecePosition() + forward;
+            if (BitBoards.contains(attacks & ~occupied, enPassantCoordinate)) {
+                legalMoves.add(new PawnEnpassantAttackMove(board, this, enPassantCoordinate, enPassantPawn));
+            }
         }
         return ImmutableList.copyOf(legalMoves);
     }
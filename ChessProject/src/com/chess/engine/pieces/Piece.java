@@ -1,10 +1,16 @@
 package com.chess.engine.pieces;
 
 import com.chess.engine.Alliance;
+import com.chess.engine.board.BitBoards;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.Move;
+import com.google.common.collect.ImmutableList;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+
+import static com.chess.engine.board.Move.*;
 
 public abstract class Piece {
     protected final PieceType pieceType;
@@ -48,6 +54,23 @@ public abstract class Piece {
     //an abstract method to calculate the legal moves on the desired board.
     public abstract Collection<Move> calculateLegalMoves(final Board board);
 
+    //a move to every empty tile the piece attacks and a capture on every enemy one, its own side's tiles are left out.
+    protected Collection<Move> calculateMovesTo(final Board board, final long attacks){
+        final List<Move> legalMoves = new ArrayList<>();
+        long destinations = attacks & ~board.getOccupancy(this.pieceAlliance);
+        while(destinations != BitBoards.EMPTY){
+            final int destinationCoordinate = BitBoards.firstTile(destinations);
+            destinations = BitBoards.removeFirstTile(destinations);
+            final Piece pieceAtDestination = board.getTile(destinationCoordinate).getPiece();
+            if(pieceAtDestination == null){
+                legalMoves.add(new MajorMove(board, this, destinationCoordinate));
+            } else {
+                legalMoves.add(new MajorAttackMove(board, this, destinationCoordinate, pieceAtDestination));
+            }
+        }
+        return ImmutableList.copyOf(legalMoves);
+    }
+
     //return the information on whether the piece is for white or black.
     public Alliance getPieceAlliance() {
         return pieceAlliance;
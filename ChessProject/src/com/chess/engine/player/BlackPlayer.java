@@ -8,6 +8,7 @@ import com.chess.engine.board.Move.QueenSideCastleMove;
 import com.chess.engine.board.Tiles;
 import com.chess.engine.pieces.Piece;
 import com.chess.engine.pieces.Rook;
+import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableList;
 
 import java.util.ArrayList;
@@ -16,9 +17,8 @@ import java.util.List;
 
 public class BlackPlayer extends Player {
     public BlackPlayer(final Board board,
-                       final Collection<Move> whiteStandardLegalMoves,
-                       final Collection<Move> blackStandardLegalMoves){
-        super(board, blackStandardLegalMoves, whiteStandardLegalMoves);
+                       final Supplier<Collection<Move>> blackStandardLegalMoves){
+        super(board, blackStandardLegalMoves);
     }
 
     @Override
@@ -31,21 +31,26 @@ public class BlackPlayer extends Player {
         return Alliance.BLACK;
     }
 
+    @Override
+    protected Alliance getOpponentAlliance() {
+        return Alliance.WHITE;
+    }
+
     @Override
     public Player getOpponent() {
         return this.board.whitePlayer();
     }
 
     @Override
-    protected Collection<Move> calculateKingCastles(final Collection<Move> playerLegals, final Collection<Move> opponentsLegals) {
+    protected Collection<Move> calculateKingCastles(final Collection<Move> playerLegals) {
         final List<Move> kingCastles = new ArrayList<>();
         //black's king side castle
         if(this.playerKing.isFirstMove() && !isInCheck()){
             if(!this.board.getTile(5).isTileOccupied() && !this.board.getTile(6).isTileOccupied()){
                 final Tiles rookTile = this.board.getTile(7);
                 if(rookTile.isTileOccupied() && rookTile.getPiece().isFirstMove()){
-                    if(Player.calculateAttacksOnTile(5, opponentsLegals).isEmpty() &&
-                            Player.calculateAttacksOnTile(6, opponentsLegals).isEmpty() &&
+                    if(!this.board.isTileAttacked(5, Alliance.WHITE) &&
+                            !this.board.isTileAttacked(6, Alliance.WHITE) &&
                             rookTile.getPiece().getPieceType().isRook()){
                         kingCastles.add(new KingSideCastleMove(this.board,
                                                                this.playerKing,
@@ -62,15 +67,15 @@ public class BlackPlayer extends Player {
 
                 final Tiles rookTile = this.board.getTile(0);
                 if(rookTile.isTileOccupied() && rookTile.getPiece().isFirstMove() &&
-                   Player.calculateAttacksOnTile(2, opponentsLegals).isEmpty() &&
-                   Player.calculateAttacksOnTile(3, opponentsLegals).isEmpty() &&
+                   !this.board.isTileAttacked(2, Alliance.WHITE) &&
+                   !this.board.isTileAttacked(3, Alliance.WHITE) &&
                    rookTile.getPiece().getPieceType().isRook()){
                     kingCastles.add(new QueenSideCastleMove(this.board,
                                                            this.playerKing,
-                                                           62,
+                                                           2,
                                                            (Rook)rookTile.getPiece(),
                                                            rookTile.getTileCoordinate(),
-                                                           61));
+                                                           3));
                 }
             }
         }
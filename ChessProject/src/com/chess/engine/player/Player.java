@@ -5,12 +5,12 @@ import com.chess.engine.board.Board;
 import com.chess.engine.board.Move;
 import com.chess.engine.pieces.King;
 import com.chess.engine.pieces.Piece;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 
 import static com.chess.engine.player.MoveStatus.*;
 import static com.chess.engine.player.MoveStatus.DONE;
@@ -20,32 +20,25 @@ public abstract class Player {
     //we want to keep track of our king
     protected final Board board;
     protected final King playerKing;
-    protected final Collection<Move> legalMoves;
-    private final boolean isInCheck;
+    /*
+    Most boards the search builds are only evaluated or thrown away, so the moves and the check are
+    worked out the first time someone asks for them and kept from then on. The memoizing suppliers
+    compute them once even when several threads ask at the same time.
+    */
+    private final Supplier<Collection<Move>> legalMoves;
+    private final Supplier<Boolean> isInCheck;
 
     Player(final Board board,
-           final Collection<Move> legalMoves,
-           final Collection<Move> opponentMoves){
+           final Supplier<Collection<Move>> standardLegalMoves){
         this.board = board;
         this.playerKing = establishKing();
-        this.legalMoves = ImmutableList.copyOf(Iterables.concat(legalMoves, calculateKingCastles(legalMoves, opponentMoves)));
-        //pass in king's current tile location and enemy moves
-        //if list is NOT empty then the king is in check
-        this.isInCheck = !Player.calculateAttacksOnTile(this.playerKing.getPiecePosition(), opponentMoves).isEmpty();
-    }
-
-    //go through each enemy move and see if destination coordinate of that enemy move overlaps with king's position
-    //if it does, the king is in check
-    //get back a collection of moves that attack king position
-
-    protected static Collection<Move> calculateAttacksOnTile(int piecePosition, Collection<Move> moves) {
-        final List<Move> attackMoves = new ArrayList<>();
-        for(final Move move : moves){
-            if(piecePosition == move.getDestinationCoordinate()){
-                attackMoves.add(move);
-            }
-        }
-        return ImmutableList.copyOf(attackMoves);
+        //the king is in check when an enemy piece attacks its tile, and then it may not castle.
+        this.isInCheck = Suppliers.memoize(() -> board.isTileAttacked(this.playerKing.getPiecePosition(),
+                                                                      getOpponentAlliance()));
+        this.legalMoves = Suppliers.memoize(() -> {
+            final Collection<Move> legalMoves = standardLegalMoves.get();
+            return ImmutableList.copyOf(Iterables.concat(legalMoves, calculateKingCastles(legalMoves)));
+        });
     }
 
     //this is to ensure that there is a king for the player on the board
@@ -59,15 +52,15 @@ public abstract class Player {
     }
 
     public boolean isMoveLegal(final Move move){
-        return this.legalMoves.contains(move);
+        return getLegalMoves().contains(move);
     }
 
     public boolean isInCheck(){
-        return this.isInCheck;
+        return this.isInCheck.get();
     }
 
     public boolean isInCheckMate(){
-        return this.isInCheck && hasEscapeMoves();
+        return isInCheck() && hasEscapeMoves();
     }
 
 
@@ -78,7 +71,7 @@ public abstract class Player {
     if you can't make it (illegal or inCheck) return false
     */
     protected boolean hasEscapeMoves() {
-        for(final Move move : this.legalMoves){
+        for(final Move move : getLegalMoves()){
             final MoveTransition transition = makeMove(move);
             if(transition.getMoveStatus().isDone()){
                 return false;
@@ -88,7 +81,7 @@ public abstract class Player {
     }
 
     public boolean isInStaleMate(){
-        return !this.isInCheck && hasEscapeMoves();
+        return !isInCheck() && hasEscapeMoves();
     }
 
     public boolean isCastled(){
@@ -100,7 +93,7 @@ public abstract class Player {
     }
 
     public Collection<Move> getLegalMoves(){
-        return this.legalMoves;
+        return this.legalMoves.get();
     }
 
     public MoveTransition makeMove(final Move move){
@@ -119,15 +112,9 @@ public abstract class Player {
         final Board transitionBoard = move.execute();
 
 
-        //are there any attacks on the current player's king?
-        final Collection<Move> kingAttacks =
-                //calculates the attacks on tile for current player's opponent's king
-                // and transition board current player get legal moves
-                Player.calculateAttacksOnTile(transitionBoard.currentPlayer().getOpponent().getPlayerKing().getPiecePosition(),
-                                                                            transitionBoard.currentPlayer().getLegalMoves());
-
-        //you can't make a move that exposes your king to check
-        if(!kingAttacks.isEmpty()){
+        //you can't make a move that exposes your king to check, the opponent is now to move on the new board.
+        if(transitionBoard.isTileAttacked(transitionBoard.currentPlayer().getOpponent().getPlayerKing().getPiecePosition(),
+                                          transitionBoard.currentPlayer().getAlliance())){
             return new MoveTransition(this.board, LEAVES_PLAYER_IN_CHECK);
         }
         //otherwise execute move
@@ -137,7 +124,9 @@ public abstract class Player {
     public abstract Collection<Piece> getActivePieces();
     public abstract Alliance getAlliance();
     public abstract Player getOpponent();
-    protected abstract Collection<Move> calculateKingCastles(Collection<Move> playerLegals, Collection<Move> opponentsLegals);
+    //the alliance of the opponent, which unlike getOpponent() is there while the board is still being built.
+    protected abstract Alliance getOpponentAlliance();
+    protected abstract Collection<Move> calculateKingCastles(Collection<Move> playerLegals);
     @Override
     public String toString(){
         if(getAlliance().isWhite()){
@@ -6,6 +6,7 @@ import com.chess.engine.board.Move;
 import com.chess.engine.board.Tiles;
 import com.chess.engine.pieces.Piece;
 import com.chess.engine.pieces.Rook;
+import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableList;
 
 import java.util.ArrayList;
@@ -16,9 +17,8 @@ import static com.chess.engine.board.Move.*;
 
 public class WhitePlayer extends Player {
     public WhitePlayer(final Board board,
-                       final Collection<Move> whiteStandardLegalMoves,
-                       final Collection<Move> blackStandardLegalMoves){
-        super(board, whiteStandardLegalMoves, blackStandardLegalMoves);
+                       final Supplier<Collection<Move>> whiteStandardLegalMoves){
+        super(board, whiteStandardLegalMoves);
     }
 
     @Override
@@ -31,21 +31,26 @@ public class WhitePlayer extends Player {
         return Alliance.WHITE;
     }
 
+    @Override
+    protected Alliance getOpponentAlliance() {
+        return Alliance.BLACK;
+    }
+
     @Override
     public Player getOpponent() {
         return this.board.blackPlayer();
     }
 
     @Override
-    protected Collection<Move> calculateKingCastles(final Collection<Move> playerLegals, final Collection<Move> opponentsLegals) {
+    protected Collection<Move> calculateKingCastles(final Collection<Move> playerLegals) {
         final List<Move> kingCastles = new ArrayList<>();
         //white's king side castle
         if(this.playerKing.isFirstMove() && !isInCheck()){
             if(!this.board.getTile(61).isTileOccupied() && !this.board.getTile(62).isTileOccupied()){
                 final Tiles rookTile = this.board.getTile(63);
                 if(rookTile.isTileOccupied() && rookTile.getPiece().isFirstMove()){
-                    if(Player.calculateAttacksOnTile(61, opponentsLegals).isEmpty() &&
-                       Player.calculateAttacksOnTile(62, opponentsLegals).isEmpty() &&
+                    if(!this.board.isTileAttacked(61, Alliance.BLACK) &&
+                       !this.board.isTileAttacked(62, Alliance.BLACK) &&
                        rookTile.getPiece().getPieceType().isRook()){
                         kingCastles.add(new KingSideCastleMove(this.board,
                                                                     this.playerKing,
@@ -61,8 +66,8 @@ public class WhitePlayer extends Player {
                !this.board.getTile(57).isTileOccupied()){
                 final Tiles rookTile = this.board.getTile(56);
                 if(rookTile.isTileOccupied() && rookTile.getPiece().isFirstMove() &&
-                   Player.calculateAttacksOnTile(58, opponentsLegals).isEmpty() &&
-                   Player.calculateAttacksOnTile(59, opponentsLegals).isEmpty() &&
+                   !this.board.isTileAttacked(58, Alliance.BLACK) &&
+                   !this.board.isTileAttacked(59, Alliance.BLACK) &&
                    rookTile.getPiece().getPieceType().isRook()){
                     kingCastles.add(new QueenSideCastleMove(this.board,
                                                            this.playerKing,
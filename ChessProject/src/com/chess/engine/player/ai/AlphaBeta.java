@@ -0,0 +1,641 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.SearchBoard;
+import com.chess.engine.pieces.Piece;
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/*
+The callers hand in Boards and get Moves back, but below the root the search never builds a Board: it
+makes and takes back int moves on one SearchBoard of its own, which plays by the same rules and lists
+the moves in the same order, so the tree is the one a search on Boards would see. The best move and
+the principal variation are turned back into Moves of the root board at the end.
+*/
+public class AlphaBeta implements MoveStrategy {
+    //no evaluation will ever reach this score, it is safe to negate.
+    static final int INFINITY = Integer.MAX_VALUE;
+    //how many nodes we visit between two looks at the clock.
+    private static final int LIMIT_CHECK_INTERVAL = 1024;
+    //futility pruning and razoring only look this many plies above the leaves.
+    private static final int FRONTIER_DEPTH = 2;
+    //late move reductions leave alone the first moves and the nodes too shallow to gain from it.
+    private static final int LATE_MOVE_INDEX = 3;
+    private static final int LATE_MOVE_MIN_DEPTH = 3;
+    //no move is a8 to a8, what the transposition table also stores for no move.
+    private static final int NO_MOVE = 0;
+
+    private final BoardEvaluator boardEvaluator;
+    private final int searchDepth;
+    //may be null, the search then keeps nothing between nodes.
+    private final TranspositionTable transpositionTable;
+    private final SearchConfig searchConfig;
+    private final MoveSorter moveSorter;
+    private final SearchBoard searchBoard;
+    //the root moves of the current searchRoot, in the order the board lists them.
+    private final int[] rootMoves;
+    //the board the last searchRoot started from, the principal variation is played out on it.
+    private Board rootBoard;
+    //triangular table: row ply holds the best line found from that ply, the next row is its child's.
+    private final int[][] principalVariation;
+    private final int[] principalVariationLength;
+    private long nodesSearched;
+    private int bestValue;
+    //the counters SearchStatistics reports, see there.
+    private long quiescenceNodes;
+    private long interiorNodes;
+    private long betaCutoffs;
+    private long firstMoveCutoffs;
+    private long hashProbes;
+    private long hashHits;
+
+    //null when nobody can stop the search, it then runs to the end.
+    private SearchControl searchControl;
+    private boolean searchAborted;
+    //what a driver plays when no iteration finished: the deepest best root move a searchRoot of this search
+    //got to the end of, with its score and line, or the first root move it made, unscored at depth 0.
+    private int fallbackMove;
+    private int fallbackValue;
+    private int fallbackDepth;
+    private final int[] fallbackLine;
+    private int fallbackLineLength;
+
+    public AlphaBeta(final int searchDepth) {
+        this(searchDepth, null);
+    }
+
+    public AlphaBeta(final int searchDepth, final TranspositionTable transpositionTable) {
+        this(searchDepth, transpositionTable, SearchConfig.PLAIN);
+    }
+
+    public AlphaBeta(final int searchDepth,
+                     final TranspositionTable transpositionTable,
+                     final SearchConfig searchConfig) {
+        this.boardEvaluator = new StandardBoardEvaluator();
+        this.searchDepth = searchDepth;
+        this.transpositionTable = transpositionTable;
+        this.searchConfig = searchConfig;
+        this.moveSorter = new MoveSorter();
+        this.searchBoard = new SearchBoard();
+        this.rootMoves = new int[SearchBoard.MAX_MOVES];
+        //quiescence can reach MAX_PLY itself, one row more than the move sorter needs.
+        this.principalVariation = new int[MoveSorter.MAX_PLY + 1][MoveSorter.MAX_PLY + 1];
+        this.principalVariationLength = new int[MoveSorter.MAX_PLY + 2];
+        this.fallbackLine = new int[MoveSorter.MAX_PLY + 1];
+    }
+
+    @Override
+    public String toString(){
+        return "AlphaBeta";
+    }
+
+    public long getNodesSearched(){
+        return this.nodesSearched;
+    }
+
+    @Override
+    public Move execute(final Board board) {
+
+        final long startTime = System.currentTimeMillis();
+        startSearch(null);
+        System.out.println(board.currentPlayer().toString() + " is thinking with depth = " + searchDepth);
+        final Move bestMove = searchRoot(board, this.searchDepth, null);
+        final long executionTime = System.currentTimeMillis() - startTime;
+        System.out.println(executionTime + " ms, " + this.nodesSearched + " nodes");
+        return bestMove;
+    }
+
+    //reset the node count for a new search, from now on it gives up an iteration as soon as the control says so.
+    void startSearch(final SearchControl searchControl){
+        this.nodesSearched = 0;
+        this.quiescenceNodes = 0;
+        this.interiorNodes = 0;
+        this.betaCutoffs = 0;
+        this.firstMoveCutoffs = 0;
+        this.hashProbes = 0;
+        this.hashHits = 0;
+        this.searchControl = searchControl;
+        this.searchAborted = false;
+        this.fallbackMove = NO_MOVE;
+        this.fallbackValue = 0;
+        this.fallbackDepth = 0;
+        this.fallbackLineLength = 0;
+        this.moveSorter.newSearch();
+    }
+
+    /*
+    What to play when the control stopped the search before any iteration finished: the best root move
+    searchRoot got to the end of, with its score and line, or the first one it tried when it was stopped
+    on that. Null when the root has no legal move.
+    */
+    SearchResult getFallbackResult(){
+        if(this.fallbackMove == NO_MOVE){
+            return null;
+        }
+        final List<Move> line = playOut(this.fallbackLine, this.fallbackLineLength);
+        return new SearchResult(line.get(0), this.fallbackValue, this.fallbackDepth, line);
+    }
+
+    //what this searcher counted since startSearch(), for an iteration of the given depth.
+    SearchStatistics.Counts getCounts(final int depth, final long elapsedMillis){
+        return new SearchStatistics.Counts(depth, elapsedMillis, this.nodesSearched, this.quiescenceNodes,
+                                           this.interiorNodes, this.betaCutoffs, this.firstMoveCutoffs,
+                                           this.hashProbes, this.hashHits);
+    }
+
+    //score of the move returned by the last completed searchRoot, from the side to move.
+    int getBestValue(){
+        return this.bestValue;
+    }
+
+    //score of a position from the side to move in it, exact inside the window and a bound outside (fail-soft).
+    int searchPosition(final Board board, final int depth, final int alpha, final int beta){
+        this.searchBoard.load(board);
+        return alphaBeta(depth, 0, alpha, beta, true);
+    }
+
+    //a full window iteration, what execute() and the parallel searchers use.
+    Move searchRoot(final Board board, final int depth, final Move firstMove){
+        return searchRoot(board, depth, firstMove, -INFINITY, INFINITY);
+    }
+
+    /*
+    One iteration of iterative deepening. firstMove is the best move of the previous iteration, and when
+    aspiration windows are on we also bet that the score stays close to the previous one: the root gets a
+    narrow window around it, which prunes much more than a full one. If the score falls outside, the
+    result is only a bound, so we widen that side of the window and search the iteration again.
+    */
+    Move searchIteration(final Board board, final int depth, final Move firstMove){
+        return searchIteration(board, depth, firstMove, Collections.<Move>emptyList(), this.bestValue);
+    }
+
+    //the same, without the excluded root moves, and with the window around the score we expect.
+    Move searchIteration(final Board board,
+                         final int depth,
+                         final Move firstMove,
+                         final Collection<Move> excludedMoves,
+                         final int expectedValue){
+        if(firstMove == null || !this.searchConfig.useAspirationWindows()){
+            return searchRoot(board, depth, firstMove, -INFINITY, INFINITY, excludedMoves);
+        }
+        long delta = this.searchConfig.getAspirationWindow();
+        int windowAlpha = clamp(expectedValue - delta);
+        int windowBeta = clamp(expectedValue + delta);
+        while(true){
+            final Move bestMove = searchRoot(board, depth, firstMove, windowAlpha, windowBeta, excludedMoves);
+            if(bestMove == null || (this.bestValue > windowAlpha && this.bestValue < windowBeta)){
+                return bestMove;
+            }
+            delta *= 4;
+            if(this.bestValue <= windowAlpha){
+                windowAlpha = clamp(this.bestValue - delta);
+            } else {
+                windowBeta = clamp(this.bestValue + delta);
+            }
+        }
+    }
+
+    //the line the last completed searchRoot expects, starting with the move it returned.
+    List<Move> getPrincipalVariation(){
+        return playOut(this.principalVariation[0], this.principalVariationLength[0]);
+    }
+
+    //the moves of a line from the root board, as far as they can be played.
+    private List<Move> playOut(final int[] moves, final int length){
+        final List<Move> line = new ArrayList<>();
+        Board lineBoard = this.rootBoard;
+        for(int i = 0; i < length; i++){
+            final Move move = SearchBoard.findMove(lineBoard, moves[i]);
+            if(move == null){
+                break;
+            }
+            line.add(move);
+            lineBoard = lineBoard.currentPlayer().makeMove(move).getTransitionBoard();
+        }
+        return ImmutableList.copyOf(line);
+    }
+
+    /*
+    Search every root move to the given depth and return the best one, or null if a limit stopped us
+    before the iteration was over. firstMove, when not null, is searched before the others: it is the
+    best move of the previous iteration and usually raises alpha early. The score is exact only if it
+    lands strictly inside the window, otherwise it is a bound and the caller has to search again.
+    */
+    Move searchRoot(final Board board,
+                    final int depth,
+                    final Move firstMove,
+                    final int windowAlpha,
+                    final int windowBeta){
+        return searchRoot(board, depth, firstMove, windowAlpha, windowBeta, Collections.<Move>emptyList());
+    }
+
+    /*
+    Multi-PV asks for the best move among the ones it has not found yet: the excluded moves are not
+    searched at all. The rest of the tree and the table are the same, so what the search for the better
+    lines stored still orders and cuts this one. Only the root entry is not stored, its score is not the
+    score of the position. Null as well when every legal move is excluded.
+    */
+    Move searchRoot(final Board board,
+                    final int depth,
+                    final Move firstMove,
+                    final int windowAlpha,
+                    final int windowBeta,
+                    final Collection<Move> excludedMoves){
+        this.searchBoard.load(board);
+        this.rootBoard = board;
+        final int moveCount = this.searchBoard.generateMoves(this.rootMoves, false);
+        final int[] excluded = new int[excludedMoves.size()];
+        int excludedCount = 0;
+        for(final Move excludedMove : excludedMoves){
+            excluded[excludedCount++] = SearchBoard.encodeMove(excludedMove);
+        }
+        //a first move the board does not have, or one that is excluded, is no first move.
+        int first = NO_MOVE;
+        if(firstMove != null){
+            final int encodedFirstMove = SearchBoard.encodeMove(firstMove);
+            if(contains(this.rootMoves, moveCount, encodedFirstMove) && !contains(excluded, excludedCount, encodedFirstMove)){
+                first = encodedFirstMove;
+            }
+        }
+        int bestMove = NO_MOVE;
+        int highestSeenValue = -INFINITY;
+        //the lower bound handed to every root child after the first one.
+        int alpha = windowAlpha;
+        this.principalVariationLength[0] = 0;
+        if(first != NO_MOVE && this.searchBoard.makeMove(first)){
+            setFirstTried(first);
+            highestSeenValue = searchRootMove(depth, alpha, windowBeta, true);
+            this.searchBoard.unmakeMove();
+            if(this.searchAborted){
+                return null;
+            }
+            bestMove = first;
+            updatePrincipalVariation(0, first);
+            setFallback(first, highestSeenValue, depth, excludedCount > 0);
+            alpha = Math.max(windowAlpha, highestSeenValue - 1);
+        }
+        for(int i = 0; i < moveCount; i++){
+            if(this.searchAborted){
+                return null;
+            }
+            //past the top of the window, the iteration is going to be searched again anyway.
+            if(bestMove != NO_MOVE && highestSeenValue >= windowBeta){
+                break;
+            }
+            final int move = this.rootMoves[i];
+            if(move == first || contains(excluded, excludedCount, move)){
+                continue;
+            }
+            if(this.searchBoard.makeMove(move)){
+                setFirstTried(move);
+                final int currentValue = searchRootMove(depth, alpha, windowBeta, bestMove == NO_MOVE);
+                this.searchBoard.unmakeMove();
+                //a move the stop cut short has no score, the best one finished before it stays the fallback.
+                if(this.searchAborted){
+                    return null;
+                }
+                //MinMax keeps the last move among equal scores, so we do the same.
+                if(bestMove == NO_MOVE || currentValue >= highestSeenValue){
+                    highestSeenValue = currentValue;
+                    bestMove = move;
+                    updatePrincipalVariation(0, move);
+                    setFallback(move, highestSeenValue, depth, excludedCount > 0);
+                    //search the remaining moves one point below the best score, that way a move that ties
+                    //the best one still comes back with its exact score instead of a bound.
+                    alpha = Math.max(windowAlpha, highestSeenValue - 1);
+                }
+            }
+        }
+        if(this.searchAborted){
+            return null;
+        }
+        this.bestValue = highestSeenValue;
+        if(bestMove == NO_MOVE){
+            return null;
+        }
+        if(this.transpositionTable != null && excludedCount == 0){
+            this.transpositionTable.store(board.getZobristKey(), depth,
+                                          boundOf(highestSeenValue, windowAlpha, windowBeta),
+                                          toTableScore(highestSeenValue, 0), TranspositionTable.encodeMove(bestMove));
+        }
+        return SearchBoard.findMove(board, bestMove);
+    }
+
+    /*
+    The best root move so far, with the line row 0 has for it. An earlier, deeper one stays, and so does
+    one of the same depth when moves are excluded: that search only looks for the next best line.
+    */
+    private void setFallback(final int move, final int value, final int depth, final boolean hasExcludedMoves){
+        if(depth < this.fallbackDepth || (hasExcludedMoves && depth == this.fallbackDepth)){
+            return;
+        }
+        this.fallbackMove = move;
+        this.fallbackValue = value;
+        this.fallbackDepth = depth;
+        this.fallbackLineLength = this.principalVariationLength[0];
+        System.arraycopy(this.principalVariation[0], 0, this.fallbackLine, 0, this.fallbackLineLength);
+    }
+
+    private void setFirstTried(final int move){
+        if(this.fallbackMove == NO_MOVE){
+            this.fallbackMove = move;
+            this.fallbackLine[0] = move;
+            this.fallbackLineLength = 1;
+        }
+    }
+
+    /*
+    Principal variation search: once a first move has set alpha, we only expect the others to be worse,
+    and a null window (alpha, alpha + 1) proves that much faster than a real one. A move that beats it
+    anyway is searched again with the real window to get its score.
+    */
+    private int searchRootMove(final int depth,
+                               final int alpha,
+                               final int beta,
+                               final boolean isFirstMove){
+        if(!isFirstMove && this.searchConfig.usePrincipalVariationSearch()){
+            final int nullWindowValue = -alphaBeta(depth - 1, 1, -alpha - 1, -alpha, true);
+            if(nullWindowValue <= alpha || nullWindowValue >= beta){
+                return nullWindowValue;
+            }
+        }
+        return -alphaBeta(depth - 1, 1, -beta, -alpha, true);
+    }
+
+    /*
+    Negamax form of MinMax.min/max: the score is always seen from the side to move, so a minimizing
+    node is a maximizing node of the negated score. alpha is the score the side to move is already
+    guaranteed elsewhere, beta is the score the opponent will allow. Once a move reaches beta the
+    opponent will never enter this position, so we stop and return the best score seen (fail-soft).
+    allowNullMove is false right after a null move, two passes in a row would prove nothing. The node is
+    the position of the search board, which is the same again when this returns.
+    */
+    private int alphaBeta(final int depth,
+                          final int ply,
+                          int alpha,
+                          final int beta,
+                          final boolean allowNullMove){
+        if(++this.nodesSearched % LIMIT_CHECK_INTERVAL == 0 && isOutOfLimits()){
+            this.searchAborted = true;
+        }
+        if(this.searchAborted){
+            //the caller throws this iteration away, the value does not matter.
+            return 0;
+        }
+        this.principalVariationLength[ply] = 0;
+        //a position the endgame tables know needs no search, and its score tells the distance to mate.
+        final EndgameTablebase tablebase = this.searchConfig.getTablebase();
+        final SearchBoard board = this.searchBoard;
+        if(tablebase != null){
+            final int entry = tablebase.probe(board);
+            if(entry != EndgameTablebase.NOT_FOUND){
+                return EndgameTablebase.scoreOf(entry, ply);
+            }
+        }
+        if(depth == 0)
+            return this.searchConfig.useQuiescence() ? quiescence(ply, alpha, beta) : evaluate(depth);
+        //a result of a search at least as deep as this one either settles the node or narrows the window.
+        int hashMove = 0;
+        if(this.transpositionTable != null){
+            final long entry = this.transpositionTable.probe(board.getZobristKey());
+            this.hashProbes++;
+            if(entry != 0){
+                this.hashHits++;
+                hashMove = TranspositionTable.getMove(entry);
+                if(TranspositionTable.getDepth(entry) >= depth){
+                    final int score = fromTableScore(TranspositionTable.getScore(entry), ply);
+                    final int bound = TranspositionTable.getBound(entry);
+                    if(bound == TranspositionTable.EXACT ||
+                       (bound == TranspositionTable.LOWER_BOUND && score >= beta) ||
+                       (bound == TranspositionTable.UPPER_BOUND && score <= alpha)){
+                        return score;
+                    }
+                }
+            }
+        }
+        /*
+        Null-move pruning: let the opponent move twice in a row. If a shallower search still scores at
+        least beta, a real move would almost certainly do even better, so we cut off without trying any.
+        That only holds when moving is an advantage: never in check, where passing is not legal, and not
+        with only pawns left, where zugzwang is common and passing would be the best move of all.
+        */
+        final boolean inCheck = board.isInCheck();
+        if(allowNullMove && this.searchConfig.useNullMovePruning() && beta < INFINITY &&
+           depth > this.searchConfig.getNullMoveReduction() &&
+           !inCheck && hasPiecesBesidesPawns(board, board.getSideToMove())){
+            board.makeNullMove();
+            final int nullMoveValue = -alphaBeta(depth - 1 - this.searchConfig.getNullMoveReduction(),
+                                                 ply + 1, -beta, -beta + 1, false);
+            board.unmakeMove();
+            //a mate found after passing is not a mate the side to move can claim, so we only return beta.
+            if(nullMoveValue >= beta && !this.searchAborted){
+                return beta;
+            }
+        }
+        /*
+        Near the leaves the static score tells a lot. Razoring: if even a generous margin does not lift it
+        to alpha, only captures can save the node, so quiescence decides. Futility pruning is the same bet
+        move by move: quiet moves are skipped, captures and checks still searched. Neither is used in check
+        or in a node with an open window, where the exact score matters.
+        */
+        final boolean isNullWindow = beta - alpha == 1;
+        int staticValue = 0;
+        boolean futile = false;
+        if(depth <= FRONTIER_DEPTH && !inCheck && isNullWindow &&
+           (this.searchConfig.useRazoring() || this.searchConfig.useFutilityPruning())){
+            staticValue = evaluate(0);
+            if(this.searchConfig.useRazoring() &&
+               staticValue + StandardBoardEvaluator.razoringMargin(depth) <= alpha){
+                final int razoredValue = this.searchConfig.useQuiescence() ?
+                                         quiescence(ply, alpha, beta) : staticValue;
+                if(razoredValue <= alpha){
+                    return razoredValue;
+                }
+            }
+            futile = this.searchConfig.useFutilityPruning() &&
+                     staticValue + StandardBoardEvaluator.futilityMargin(depth) <= alpha;
+        }
+        final int originalAlpha = alpha;
+        int highestSeenValue = -INFINITY;
+        int bestMove = NO_MOVE;
+        boolean hasLegalMove = false;
+        this.interiorNodes++;
+        //the best move found here last time comes first, it is the most likely to cut off.
+        final int moveCount = this.moveSorter.orderMoves(board, ply, hashMove, false);
+        for(int i = 0; i < moveCount; i++){
+            final int move = this.moveSorter.nextMove(ply, i, moveCount);
+            if(board.makeMove(move)){
+                final boolean isFirstMove = !hasLegalMove;
+                final boolean isQuietMove = hasLegalMove && this.moveSorter.isHistoryMove(ply, i) &&
+                                            !board.isInCheck();
+                if(futile && isQuietMove){
+                    board.unmakeMove();
+                    //the best this move can hope for, the node stays fail-soft.
+                    highestSeenValue = Math.max(highestSeenValue,
+                                                staticValue + StandardBoardEvaluator.futilityMargin(depth));
+                    continue;
+                }
+                int currentValue = 0;
+                boolean needsFullDepth = true;
+                //a late quiet move is first searched shallower, and only at full depth if it beats alpha.
+                if(isQuietMove && this.searchConfig.useLateMoveReductions() && !inCheck &&
+                   depth >= LATE_MOVE_MIN_DEPTH && i >= LATE_MOVE_INDEX){
+                    final int reduction = depth >= 6 && i >= 4 * LATE_MOVE_INDEX ? 2 : 1;
+                    currentValue = -alphaBeta(depth - 1 - reduction, ply + 1, -alpha - 1, -alpha, true);
+                    needsFullDepth = currentValue > alpha;
+                }
+                if(needsFullDepth){
+                    //principal variation search, see searchRootMove.
+                    if(hasLegalMove && this.searchConfig.usePrincipalVariationSearch()){
+                        currentValue = -alphaBeta(depth - 1, ply + 1, -alpha - 1, -alpha, true);
+                        if(currentValue > alpha && currentValue < beta){
+                            currentValue = -alphaBeta(depth - 1, ply + 1, -beta, -alpha, true);
+                        }
+                    } else {
+                        currentValue = -alphaBeta(depth - 1, ply + 1, -beta, -alpha, true);
+                    }
+                }
+                board.unmakeMove();
+                hasLegalMove = true;
+                if(currentValue > highestSeenValue){
+                    highestSeenValue = currentValue;
+                    bestMove = move;
+                    if(currentValue > alpha){
+                        alpha = currentValue;
+                        updatePrincipalVariation(ply, move);
+                        if(alpha >= beta){
+                            this.betaCutoffs++;
+                            if(isFirstMove){
+                                this.firstMoveCutoffs++;
+                            }
+                            this.moveSorter.recordCutoff(move, ply, depth);
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        //no legal move means checkmate or stalemate, which the evaluator scores like MinMax does.
+        if(!hasLegalMove){
+            return evaluate(depth);
+        }
+        if(this.transpositionTable != null && !this.searchAborted){
+            this.transpositionTable.store(board.getZobristKey(), depth, boundOf(highestSeenValue, originalAlpha, beta),
+                                          toTableScore(highestSeenValue, ply),
+                                          TranspositionTable.encodeMove(bestMove));
+        }
+        return highestSeenValue;
+    }
+
+    /*
+    At the last ply a capture may still be under way, and scoring the board in the middle of an exchange
+    makes the search think it won a piece that is about to be taken back. So we keep playing captures,
+    and only captures, until none is worth making. The side to move may also decline every capture and
+    keep the static score (stand pat): if that is already at least beta there is nothing left to look at.
+    */
+    private int quiescence(final int ply, int alpha, final int beta){
+        if(++this.nodesSearched % LIMIT_CHECK_INTERVAL == 0 && isOutOfLimits()){
+            this.searchAborted = true;
+        }
+        if(this.searchAborted){
+            return 0;
+        }
+        this.quiescenceNodes++;
+        this.principalVariationLength[ply] = 0;
+        final SearchBoard board = this.searchBoard;
+        final int standPat = evaluate(0);
+        if(standPat >= beta || ply >= MoveSorter.MAX_PLY){
+            return standPat;
+        }
+        if(standPat > alpha){
+            alpha = standPat;
+        }
+        int highestSeenValue = standPat;
+        final int moveCount = this.moveSorter.orderMoves(board, ply, 0, true);
+        for(int i = 0; i < moveCount; i++){
+            final int move = this.moveSorter.nextMove(ply, i, moveCount);
+            if(board.makeMove(move)){
+                final int currentValue = -quiescence(ply + 1, -beta, -alpha);
+                board.unmakeMove();
+                if(currentValue > highestSeenValue){
+                    highestSeenValue = currentValue;
+                    if(currentValue > alpha){
+                        alpha = currentValue;
+                        updatePrincipalVariation(ply, move);
+                        if(alpha >= beta){
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        return highestSeenValue;
+    }
+
+    //the move raised alpha: the line from this ply is now the move followed by the line of its child.
+    private void updatePrincipalVariation(final int ply, final int move){
+        final int childLength = this.principalVariationLength[ply + 1];
+        this.principalVariation[ply][0] = move;
+        System.arraycopy(this.principalVariation[ply + 1], 0, this.principalVariation[ply], 1, childLength);
+        this.principalVariationLength[ply] = childLength + 1;
+    }
+
+    private static int boundOf(final int score, final int alpha, final int beta){
+        return score <= alpha ? TranspositionTable.UPPER_BOUND :
+               score >= beta ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT;
+    }
+
+    private static int clamp(final long score){
+        return (int) Math.max(-INFINITY, Math.min(INFINITY, score));
+    }
+
+    private static boolean hasPiecesBesidesPawns(final SearchBoard board, final Alliance alliance){
+        return (board.getOccupancy(alliance) &
+                ~board.getPieceBitBoard(Piece.PieceType.PAWN, alliance) &
+                ~board.getPieceBitBoard(Piece.PieceType.KING, alliance)) != 0;
+    }
+
+    /*
+    A tablebase score counts the plies to mate from the root, but the same position can come up again at
+    another ply, through the transposition table or in a later search. So the table keeps such scores
+    counted from the node itself, and they are counted from the root again when they are read back.
+    */
+    private static int toTableScore(final int score, final int ply){
+        if(!EndgameTablebase.isMateScore(score)){
+            return score;
+        }
+        return score > 0 ? score + ply : score - ply;
+    }
+
+    private static int fromTableScore(final int score, final int ply){
+        if(!EndgameTablebase.isMateScore(score)){
+            return score;
+        }
+        return score > 0 ? score - ply : score + ply;
+    }
+
+    private static boolean contains(final int[] moves, final int moveCount, final int move){
+        for(int i = 0; i < moveCount; i++){
+            if(moves[i] == move){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isOutOfLimits(){
+        return this.searchControl != null && this.searchControl.isOutOfLimits(this.nodesSearched);
+    }
+
+    //the evaluator scores for white, flip it when black is to move.
+    private int evaluate(final int depth){
+        final int score = this.boardEvaluator.evaluate(this.searchBoard, depth);
+        return this.searchBoard.getSideToMove().isWhite() ? score : -score;
+    }
+}
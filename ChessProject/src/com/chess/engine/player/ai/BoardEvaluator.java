@@ -1,9 +1,12 @@
 package com.chess.engine.player.ai;
 
 import com.chess.engine.board.Board;
+import com.chess.engine.board.SearchBoard;
 
 public interface BoardEvaluator {
     //This is a zero-sum game, if the evaluate returns a positive integer, white is winning
     //if it returns a negative integer, black is winning.
     int evaluate(Board board, int depth);
+    //the same score for the position of the search board, which the search evaluates instead of a Board.
+    int evaluate(SearchBoard board, int depth);
 }
@@ -0,0 +1,60 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.google.common.collect.ImmutableList;
+
+import java.util.Random;
+
+/*
+Plays from the opening book while the game is in it and hands the board to the search after that. A
+book move comes back as a result of depth 0 with the book move as its whole line.
+*/
+public class BookMoveStrategy implements SearchDriver {
+
+    private final PolyglotBook book;
+    private final SearchDriver searchDriver;
+    private final Random random;
+
+    public BookMoveStrategy(final PolyglotBook book, final SearchDriver searchDriver) {
+        this(book, searchDriver, new Random());
+    }
+
+    public BookMoveStrategy(final PolyglotBook book, final SearchDriver searchDriver, final Random random) {
+        this.book = book;
+        this.searchDriver = searchDriver;
+        this.random = random;
+    }
+
+    @Override
+    public String toString(){
+        return "Book + " + this.searchDriver;
+    }
+
+    @Override
+    public Move execute(final Board board) {
+        //no result when the side to move has no legal move, MinMax returns null there too.
+        final SearchResult searchResult = search(board);
+        return searchResult != null ? searchResult.getBestMove() : null;
+    }
+
+    @Override
+    public SearchResult search(final Board board) {
+        final SearchResult bookResult = probeBook(board);
+        return bookResult != null ? bookResult : this.searchDriver.search(board);
+    }
+
+    @Override
+    public SearchResult search(final Board board, final SearchControl searchControl) {
+        final SearchResult bookResult = probeBook(board);
+        return bookResult != null ? bookResult : this.searchDriver.search(board, searchControl);
+    }
+
+    private SearchResult probeBook(final Board board){
+        final Move bookMove = this.book.findMove(board, this.random);
+        if(bookMove == null){
+            return null;
+        }
+        return new SearchResult(bookMove, 0, 0, ImmutableList.of(bookMove));
+    }
+}
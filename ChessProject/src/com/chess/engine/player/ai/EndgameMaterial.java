@@ -0,0 +1,249 @@
+package com.chess.engine.player.ai;
+
+import java.util.Arrays;
+
+/*
+The pieces of one endgame table, like KQvKR, and where a placement of them is stored in its file.
+
+A table does not care about colours: without pawns and castling both sides move the same way, so KRvK
+also answers for KvKR with the sides swapped. Side A is the one named first, the stronger one. The file
+holds one byte per placement for side A to move, then one per placement for side B to move.
+
+A placement is stored under the slot of its canonical form. Mirroring the board left-right, top-bottom
+or along the a8-h1 diagonal changes nothing in a pawnless ending, so the first king is always brought
+into the a8-d8-d5 triangle, ten squares instead of 64. When that king is on the diagonal two mirror
+images qualify, and we keep the one with the lower slot; two identical pieces are stored in square
+order. Equal positions therefore always share a slot, the others stay empty and read as draws.
+*/
+final class EndgameMaterial {
+
+    static final int KING = 0;
+    static final int QUEEN = 1;
+    static final int ROOK = 2;
+    static final int BISHOP = 3;
+    static final int KNIGHT = 4;
+    private static final String PIECE_LETTERS = "KQRBN";
+
+    static final int MAX_PIECES = 4;
+    static final int SIDE_A = 0;
+    static final int SIDE_B = 1;
+
+    //SYMMETRIES[s][tile]: where one of the eight mirror images of the board puts the tile.
+    private static final int[][] SYMMETRIES = initSymmetries();
+    //0-9 for the squares of the triangle, -1 elsewhere.
+    private static final int[] TRIANGLE_INDEX = initTriangleIndex();
+    private static final int[] TRIANGLE_SQUARES = initTriangleSquares();
+    //the mirror images that bring a king on the tile into the triangle, one or two of them.
+    private static final int[][] KING_SYMMETRIES = initKingSymmetries();
+
+    private final String name;
+    //one entry per piece, in the order of the name: side A's king and pieces, then side B's.
+    private final int[] pieceTypes;
+    private final int[] pieceSides;
+    //true when the piece is the same as the one before it, their squares are kept sorted.
+    private final boolean[] sameAsPrevious;
+    private final int pieceCount;
+    private final int slotsPerSide;
+
+    private EndgameMaterial(final String name){
+        final String[] sides = name.split("v");
+        if(sides.length != 2 || !isSideName(sides[0]) || !isSideName(sides[1]) ||
+           name.length() - 1 > MAX_PIECES || !name.equals(nameOf(sides[0], sides[1]))){
+            throw new IllegalArgumentException("Not a table name: " + name);
+        }
+        this.name = name;
+        this.pieceCount = name.length() - 1;
+        this.pieceTypes = new int[this.pieceCount];
+        this.pieceSides = new int[this.pieceCount];
+        this.sameAsPrevious = new boolean[this.pieceCount];
+        int piece = 0;
+        for(int side = SIDE_A; side <= SIDE_B; side++){
+            for(final char letter : sides[side].toCharArray()){
+                this.pieceTypes[piece] = PIECE_LETTERS.indexOf(letter);
+                this.pieceSides[piece] = side;
+                this.sameAsPrevious[piece] = piece > 0 && this.pieceTypes[piece] == this.pieceTypes[piece - 1] &&
+                                             this.pieceSides[piece] == this.pieceSides[piece - 1];
+                piece++;
+            }
+        }
+        int slots = TRIANGLE_SQUARES.length;
+        for(int i = 1; i < this.pieceCount; i++){
+            slots *= 64;
+        }
+        this.slotsPerSide = slots;
+    }
+
+    static EndgameMaterial of(final String name){
+        return new EndgameMaterial(name);
+    }
+
+    /*
+    The table name for two sides given as piece letters, king first. The side with more pieces comes
+    first, and between sides of as many pieces the one with the stronger piece list.
+    */
+    static String nameOf(final String firstSide, final String secondSide){
+        return isFirstSideStronger(firstSide, secondSide) ? firstSide + "v" + secondSide :
+                                                            secondSide + "v" + firstSide;
+    }
+
+    static boolean isFirstSideStronger(final String firstSide, final String secondSide){
+        if(firstSide.length() != secondSide.length()){
+            return firstSide.length() > secondSide.length();
+        }
+        for(int i = 0; i < firstSide.length(); i++){
+            final int order = PIECE_LETTERS.indexOf(firstSide.charAt(i)) - PIECE_LETTERS.indexOf(secondSide.charAt(i));
+            if(order != 0){
+                return order < 0;
+            }
+        }
+        return true;
+    }
+
+    //the letters of a side in table order, king first.
+    static String sideName(final int[] pieceTypes, final int count){
+        final StringBuilder builder = new StringBuilder("K");
+        for(int type = QUEEN; type <= KNIGHT; type++){
+            for(int i = 0; i < count; i++){
+                if(pieceTypes[i] == type){
+                    builder.append(PIECE_LETTERS.charAt(type));
+                }
+            }
+        }
+        return builder.toString();
+    }
+
+    private static boolean isSideName(final String side){
+        if(side.isEmpty() || side.charAt(0) != 'K'){
+            return false;
+        }
+        for(int i = 1; i < side.length(); i++){
+            final int type = PIECE_LETTERS.indexOf(side.charAt(i));
+            if(type <= KING || (i > 1 && type < PIECE_LETTERS.indexOf(side.charAt(i - 1)))){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    String getName(){
+        return this.name;
+    }
+
+    int getPieceCount(){
+        return this.pieceCount;
+    }
+
+    int getPieceType(final int piece){
+        return this.pieceTypes[piece];
+    }
+
+    int getPieceSide(final int piece){
+        return this.pieceSides[piece];
+    }
+
+    int getSlotsPerSide(){
+        return this.slotsPerSide;
+    }
+
+    //bytes in the file: a slot for every placement, once for each side to move.
+    long getFileSize(){
+        return 2L * this.slotsPerSide;
+    }
+
+    //the slot of a placement, squares[i] being the tile of piece i. scratch needs as many entries.
+    int slotOf(final int[] squares, final int[] scratch){
+        int bestSlot = -1;
+        for(final int symmetry : KING_SYMMETRIES[squares[0]]){
+            final int[] mirrored = SYMMETRIES[symmetry];
+            for(int i = 0; i < this.pieceCount; i++){
+                scratch[i] = mirrored[squares[i]];
+                if(this.sameAsPrevious[i] && scratch[i] < scratch[i - 1]){
+                    final int square = scratch[i];
+                    scratch[i] = scratch[i - 1];
+                    scratch[i - 1] = square;
+                }
+            }
+            int slot = TRIANGLE_INDEX[scratch[0]];
+            for(int i = 1; i < this.pieceCount; i++){
+                slot = slot * 64 + scratch[i];
+            }
+            if(bestSlot < 0 || slot < bestSlot){
+                bestSlot = slot;
+            }
+        }
+        return bestSlot;
+    }
+
+    //the placement stored in a slot, the inverse of slotOf() for canonical placements.
+    void squaresOf(int slot, final int[] squares){
+        for(int i = this.pieceCount - 1; i > 0; i--){
+            squares[i] = slot % 64;
+            slot /= 64;
+        }
+        squares[0] = TRIANGLE_SQUARES[slot];
+    }
+
+    @Override
+    public String toString(){
+        return this.name;
+    }
+
+    private static int[][] initSymmetries(){
+        final int[][] symmetries = new int[8][64];
+        for(int symmetry = 0; symmetry < 8; symmetry++){
+            for(int tile = 0; tile < 64; tile++){
+                int row = tile / 8;
+                int column = tile % 8;
+                if((symmetry & 4) != 0){
+                    final int swap = row;
+                    row = column;
+                    column = swap;
+                }
+                if((symmetry & 2) != 0){
+                    row = 7 - row;
+                }
+                if((symmetry & 1) != 0){
+                    column = 7 - column;
+                }
+                symmetries[symmetry][tile] = row * 8 + column;
+            }
+        }
+        return symmetries;
+    }
+
+    private static int[] initTriangleIndex(){
+        final int[] triangleIndex = new int[64];
+        int index = 0;
+        for(int tile = 0; tile < 64; tile++){
+            final int row = tile / 8;
+            final int column = tile % 8;
+            triangleIndex[tile] = row <= column && column <= 3 ? index++ : -1;
+        }
+        return triangleIndex;
+    }
+
+    private static int[] initTriangleSquares(){
+        final int[] triangleSquares = new int[10];
+        for(int tile = 0; tile < 64; tile++){
+            if(TRIANGLE_INDEX[tile] >= 0){
+                triangleSquares[TRIANGLE_INDEX[tile]] = tile;
+            }
+        }
+        return triangleSquares;
+    }
+
+    private static int[][] initKingSymmetries(){
+        final int[][] kingSymmetries = new int[64][];
+        for(int tile = 0; tile < 64; tile++){
+            int count = 0;
+            final int[] found = new int[8];
+            for(int symmetry = 0; symmetry < 8; symmetry++){
+                if(TRIANGLE_INDEX[SYMMETRIES[symmetry][tile]] >= 0){
+                    found[count++] = symmetry;
+                }
+            }
+            kingSymmetries[tile] = Arrays.copyOf(found, count);
+        }
+        return kingSymmetries;
+    }
+}
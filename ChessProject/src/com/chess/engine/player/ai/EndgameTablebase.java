@@ -0,0 +1,266 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.BitBoards;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.SearchBoard;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.player.MoveTransition;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+The distance-to-mate tables TablebaseGenerator wrote to a directory, one file per ending. The files are
+mapped read-only like PolyglotBook does, a probe reads one byte and the operating system keeps the
+pages the search keeps coming back to. Probing never allocates a board and is safe from any number of
+search threads at once.
+
+An entry is the distance to mate in plies plus one, 0 for a draw: odd distances are wins for the side
+to move, even ones losses. probe() answers NOT_FOUND for a board no table covers: pawns, more than
+four pieces, a rook on its corner (this engine then still lets the king castle), or an ending
+that was not generated.
+*/
+public final class EndgameTablebase {
+
+    public static final int NOT_FOUND = -1;
+    public static final int DRAW = 0;
+    //above any material balance the evaluator gives, below the mates the search scores past depth 0.
+    public static final int WIN_SCORE = 20000;
+    //an entry is one byte, so no table mate is further away than this.
+    private static final int MAX_PLIES_TO_MATE = 254;
+    //the lowest a win can score, found as deep in the search as a node can be.
+    private static final int MIN_WIN_SCORE = WIN_SCORE - MoveSorter.MAX_PLY - MAX_PLIES_TO_MATE;
+    private static final String FILE_EXTENSION = ".dtm";
+    //the piece types of the tables, indexed by their EndgameMaterial codes.
+    private static final Piece.PieceType[] TABLE_PIECE_TYPES = {Piece.PieceType.KING, Piece.PieceType.QUEEN,
+            Piece.PieceType.ROOK, Piece.PieceType.BISHOP, Piece.PieceType.KNIGHT};
+
+    private final ImmutableMap<String, MappedTable> tables;
+
+    public EndgameTablebase(final File directory) throws IOException {
+        final File[] files = directory.listFiles();
+        if(files == null){
+            throw new IOException(directory + " is not a directory");
+        }
+        final ImmutableMap.Builder<String, MappedTable> tables = ImmutableMap.builder();
+        for(final File file : files){
+            final String fileName = file.getName();
+            if(!fileName.endsWith(FILE_EXTENSION)){
+                continue;
+            }
+            final EndgameMaterial material;
+            try {
+                material = EndgameMaterial.of(fileName.substring(0, fileName.length() - FILE_EXTENSION.length()));
+            } catch (final IllegalArgumentException e) {
+                continue;
+            }
+            tables.put(material.getName(), new MappedTable(material, file));
+        }
+        this.tables = tables.build();
+    }
+
+    static File fileOf(final File directory, final String name){
+        return new File(directory, name + FILE_EXTENSION);
+    }
+
+    public int getTableCount(){
+        return this.tables.size();
+    }
+
+    //the entry of the board, or NOT_FOUND when no table covers it.
+    public int probe(final Board board){
+        if(board.getCastlingRights() != 0){
+            return NOT_FOUND;
+        }
+        final long[] bitBoards = new long[TABLE_PIECE_TYPES.length * 2];
+        for(int type = 0; type < TABLE_PIECE_TYPES.length; type++){
+            bitBoards[type] = board.getPieceBitBoard(TABLE_PIECE_TYPES[type], Alliance.WHITE);
+            bitBoards[TABLE_PIECE_TYPES.length + type] = board.getPieceBitBoard(TABLE_PIECE_TYPES[type], Alliance.BLACK);
+        }
+        return probe(board.getOccupancy(), bitBoards, board.currentPlayer().getAlliance().isWhite());
+    }
+
+    //the same for the position of a search board, what the search probes below the root.
+    public int probe(final SearchBoard board){
+        if(board.getCastlingRights() != 0){
+            return NOT_FOUND;
+        }
+        final long[] bitBoards = new long[TABLE_PIECE_TYPES.length * 2];
+        for(int type = 0; type < TABLE_PIECE_TYPES.length; type++){
+            bitBoards[type] = board.getPieceBitBoard(TABLE_PIECE_TYPES[type], Alliance.WHITE);
+            bitBoards[TABLE_PIECE_TYPES.length + type] = board.getPieceBitBoard(TABLE_PIECE_TYPES[type], Alliance.BLACK);
+        }
+        return probe(board.getOccupancy(), bitBoards, board.getSideToMove().isWhite());
+    }
+
+    /*
+    The entry from the tiles of the pieces: bitBoards holds white's pieces of every table type, then
+    black's. Pieces of the same type go into the slots of the table in the order of their tiles.
+    */
+    private int probe(final long occupied, final long[] bitBoards, final boolean isWhiteToMove){
+        if(Long.bitCount(occupied) > EndgameMaterial.MAX_PIECES){
+            return NOT_FOUND;
+        }
+        long tablePieces = BitBoards.EMPTY;
+        for(final long bitBoard : bitBoards){
+            tablePieces |= bitBoard;
+        }
+        //whatever else is on the board is a pawn.
+        if(tablePieces != occupied){
+            return NOT_FOUND;
+        }
+        final int[] whiteTypes = new int[EndgameMaterial.MAX_PIECES];
+        final int[] blackTypes = new int[EndgameMaterial.MAX_PIECES];
+        final int whiteCount = pieceTypesOf(bitBoards, 0, whiteTypes);
+        final int blackCount = pieceTypesOf(bitBoards, TABLE_PIECE_TYPES.length, blackTypes);
+        if(whiteCount + blackCount == 0){
+            return DRAW;
+        }
+        final String whiteSide = EndgameMaterial.sideName(whiteTypes, whiteCount);
+        final String blackSide = EndgameMaterial.sideName(blackTypes, blackCount);
+        final MappedTable table = this.tables.get(EndgameMaterial.nameOf(whiteSide, blackSide));
+        if(table == null){
+            return NOT_FOUND;
+        }
+        //side A of the table is white unless black has the stronger pieces.
+        final boolean whiteIsSideA = EndgameMaterial.isFirstSideStronger(whiteSide, blackSide);
+        final EndgameMaterial material = table.material;
+        final int[] squares = new int[material.getPieceCount()];
+        for(int slotPiece = 0; slotPiece < squares.length; slotPiece++){
+            final boolean isWhite = (material.getPieceSide(slotPiece) == EndgameMaterial.SIDE_A) == whiteIsSideA;
+            final int index = (isWhite ? 0 : TABLE_PIECE_TYPES.length) + material.getPieceType(slotPiece);
+            if(bitBoards[index] == BitBoards.EMPTY){
+                throw new IllegalStateException("No piece of type " + material.getPieceType(slotPiece) + " left");
+            }
+            //hand out the lowest tile and take it off, the next piece of the type gets the one after.
+            squares[slotPiece] = BitBoards.firstTile(bitBoards[index]);
+            bitBoards[index] = BitBoards.removeFirstTile(bitBoards[index]);
+        }
+        final int sideToMove = isWhiteToMove == whiteIsSideA ? EndgameMaterial.SIDE_A : EndgameMaterial.SIDE_B;
+        return table.entry(sideToMove, material.slotOf(squares, new int[EndgameMaterial.MAX_PIECES]));
+    }
+
+    public static boolean isWin(final int entry){
+        return entry > 0 && (entry - 1) % 2 == 1;
+    }
+
+    public static boolean isLoss(final int entry){
+        return entry > 0 && (entry - 1) % 2 == 0;
+    }
+
+    //plies until mate for a win or a loss, with best play on both sides.
+    public static int pliesToMate(final int entry){
+        return entry - 1;
+    }
+
+    //a search score for the entry of a node ply plies from the root, quicker mates score higher.
+    public static int scoreOf(final int entry, final int ply){
+        if(entry == DRAW){
+            return 0;
+        }
+        final int score = WIN_SCORE - ply - pliesToMate(entry);
+        return isWin(entry) ? score : -score;
+    }
+
+    //whether a search score is a win or loss scoreOf() gave, the ones that depend on the ply.
+    public static boolean isMateScore(final int score){
+        final int absoluteScore = Math.abs(score);
+        return absoluteScore >= MIN_WIN_SCORE && absoluteScore <= WIN_SCORE;
+    }
+
+    /*
+    The move that keeps the result the table gives the board: the quickest mate when winning, a move
+    that holds the draw, the slowest mate when losing. Moves to boards no table covers are left out,
+    like a rook going back to its corner, where this engine lets the king castle again. Null when the
+    board is not covered or none of its moves is.
+    */
+    public Move findBestMove(final Board board){
+        if(probe(board) == NOT_FOUND){
+            return null;
+        }
+        Move bestMove = null;
+        int bestScore = Integer.MIN_VALUE;
+        for(final Move move : board.currentPlayer().getLegalMoves()){
+            final MoveTransition transition = board.currentPlayer().makeMove(move);
+            if(!transition.getMoveStatus().isDone()){
+                continue;
+            }
+            final int childEntry = probe(transition.getTransitionBoard());
+            if(childEntry == NOT_FOUND){
+                continue;
+            }
+            final int score = -scoreOf(childEntry, 1);
+            if(score > bestScore){
+                bestScore = score;
+                bestMove = move;
+            }
+        }
+        return bestMove;
+    }
+
+    //the line both sides play from the board following the tables, at most maxLength moves of it.
+    public List<Move> getLine(final Board board, final int maxLength){
+        final List<Move> line = new ArrayList<>();
+        Board lineBoard = board;
+        while(line.size() < maxLength){
+            final Move move = findBestMove(lineBoard);
+            if(move == null){
+                break;
+            }
+            line.add(move);
+            lineBoard = lineBoard.currentPlayer().makeMove(move).getTransitionBoard();
+        }
+        return ImmutableList.copyOf(line);
+    }
+
+    //the table codes of one side's pieces besides the king in the order of their tiles, and how many there are.
+    private static int pieceTypesOf(final long[] bitBoards, final int firstIndex, final int[] types){
+        long sidePieces = BitBoards.EMPTY;
+        for(int type = 0; type < TABLE_PIECE_TYPES.length; type++){
+            if(type != EndgameMaterial.KING){
+                sidePieces |= bitBoards[firstIndex + type];
+            }
+        }
+        int count = 0;
+        while(sidePieces != BitBoards.EMPTY){
+            final long tile = BitBoards.bit(BitBoards.firstTile(sidePieces));
+            for(int type = 0; type < TABLE_PIECE_TYPES.length; type++){
+                if((bitBoards[firstIndex + type] & tile) != 0){
+                    types[count++] = type;
+                }
+            }
+            sidePieces = BitBoards.removeFirstTile(sidePieces);
+        }
+        return count;
+    }
+
+    private static final class MappedTable {
+        private final EndgameMaterial material;
+        private final MappedByteBuffer entries;
+
+        MappedTable(final EndgameMaterial material, final File file) throws IOException {
+            this.material = material;
+            try(final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+                final FileChannel channel = randomAccessFile.getChannel()){
+                if(channel.size() != material.getFileSize()){
+                    throw new IOException(file + " should have " + material.getFileSize() + " bytes, not " +
+                                          channel.size());
+                }
+                this.entries = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        }
+
+        int entry(final int sideToMove, final int slot){
+            return this.entries.get(sideToMove * this.material.getSlotsPerSide() + slot) & 0xFF;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+
+/*
+Search depth 1, then 2, then 3... until the time or node budget runs out, and play the best move of the
+last iteration that finished. The shallow iterations are cheap next to the last one, and they let us
+stop at any moment with a move in hand, so the caller can promise a time per move instead of a depth.
+*/
+public class IterativeDeepening implements SearchDriver {
+
+    private final SearchLimits searchLimits;
+    private final AlphaBeta searcher;
+    private final TranspositionTable transpositionTable;
+
+    public IterativeDeepening(final SearchLimits searchLimits) {
+        this(searchLimits, null);
+    }
+
+    //the table may be shared between moves of a game, each iteration also starts from what the previous one stored.
+    public IterativeDeepening(final SearchLimits searchLimits, final TranspositionTable transpositionTable) {
+        this(searchLimits, transpositionTable, SearchConfig.DEFAULT);
+    }
+
+    public IterativeDeepening(final SearchLimits searchLimits,
+                              final TranspositionTable transpositionTable,
+                              final SearchConfig searchConfig) {
+        this.searchLimits = searchLimits;
+        this.transpositionTable = transpositionTable;
+        this.searcher = new AlphaBeta(searchLimits.getMaxDepth(), transpositionTable, searchConfig);
+    }
+
+    @Override
+    public String toString(){
+        return "IterativeDeepening";
+    }
+
+    @Override
+    public Move execute(final Board board) {
+        //no result when the side to move has no legal move, MinMax returns null there too.
+        final SearchResult searchResult = search(board);
+        return searchResult != null ? searchResult.getBestMove() : null;
+    }
+
+    @Override
+    public SearchResult search(final Board board) {
+        return search(board, SearchControl.of(this.searchLimits));
+    }
+
+    @Override
+    public SearchResult search(final Board board, final SearchControl searchControl) {
+        final long startTime = System.currentTimeMillis();
+        System.out.println(board.currentPlayer().toString() + " is thinking with " + this.searchLimits);
+
+        if(this.transpositionTable != null){
+            this.transpositionTable.newSearch();
+        }
+        this.searcher.startSearch(searchControl);
+        final SearchStatistics.Builder statistics = new SearchStatistics.Builder();
+        SearchResult searchResult = null;
+        for(int depth = 1; depth <= this.searchLimits.getMaxDepth(); depth++){
+            final Move iterationMove =
+                    this.searcher.searchIteration(board, depth, searchResult != null ? searchResult.getBestMove() : null);
+            if(iterationMove == null){
+                //an iteration stopped by the budget is incomplete, keep the result of the previous one.
+                break;
+            }
+            searchResult = new SearchResult(iterationMove, this.searcher.getBestValue(), depth,
+                                            this.searcher.getPrincipalVariation());
+            final long elapsed = System.currentTimeMillis() - startTime;
+            statistics.addIteration(this.searcher.getCounts(depth, elapsed));
+            if(!searchControl.canStartIteration(this.searcher.getNodesSearched())){
+                break;
+            }
+        }
+        //stopped before the first iteration was over, we still owe the caller a move.
+        if(searchResult == null){
+            searchResult = this.searcher.getFallbackResult();
+        }
+        final long executionTime = System.currentTimeMillis() - startTime;
+        final SearchStatistics searchStatistics = statistics
+                .addSearcher(this.searcher.getCounts(searchResult != null ? searchResult.getDepth() : 0, executionTime))
+                .setElapsedMillis(executionTime)
+                .build();
+        return searchResult != null ? searchResult.withStatistics(searchStatistics) : null;
+    }
+}
@@ -0,0 +1,177 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+Lazy SMP: every thread runs the same iterative deepening search on the same position and the threads
+only meet in the shared transposition table. A helper that finishes a subtree stores it, and the other
+threads cut off as soon as they reach it, so together they get deeper than one thread alone. Odd helpers
+start one ply deeper than the main thread so that they run ahead and fill the table for it.
+
+Unlike ParallelAlphaBeta this keeps every thread busy however few root moves there are, but the move it
+plays depends on timing, the same position may not give the same move twice.
+*/
+public class LazySMP implements SearchDriver {
+
+    private final SearchLimits searchLimits;
+    private final int threadCount;
+    private final TranspositionTable transpositionTable;
+    private final SearchConfig searchConfig;
+
+    //deepest iteration finished by any thread during the current search.
+    private SearchResult bestResult;
+    //the iterations of the main thread, the totals of all threads are added at the end.
+    private SearchStatistics.Builder statistics;
+
+    public LazySMP(final SearchLimits searchLimits,
+                   final int threadCount,
+                   final TranspositionTable transpositionTable) {
+        this(searchLimits, threadCount, transpositionTable, SearchConfig.DEFAULT);
+    }
+
+    public LazySMP(final SearchLimits searchLimits,
+                   final int threadCount,
+                   final TranspositionTable transpositionTable,
+                   final SearchConfig searchConfig) {
+        if(threadCount < 1){
+            throw new IllegalArgumentException("Lazy SMP needs at least one thread");
+        }
+        //the table is where the threads meet, without one they would only search the same tree side by side.
+        if(transpositionTable == null){
+            throw new IllegalArgumentException("Lazy SMP needs a transposition table");
+        }
+        this.searchLimits = searchLimits;
+        this.threadCount = threadCount;
+        this.transpositionTable = transpositionTable;
+        this.searchConfig = searchConfig;
+    }
+
+    @Override
+    public String toString(){
+        return "LazySMP";
+    }
+
+    @Override
+    public Move execute(final Board board) {
+        //no result when the side to move has no legal move, MinMax returns null there too.
+        final SearchResult searchResult = search(board);
+        return searchResult != null ? searchResult.getBestMove() : null;
+    }
+
+    @Override
+    public SearchResult search(final Board board) {
+        return search(board, SearchControl.of(this.searchLimits));
+    }
+
+    //the control stops the main thread, which then stops the helpers through their own controls.
+    @Override
+    public SearchResult search(final Board board, final SearchControl searchControl) {
+        final long startTime = System.currentTimeMillis();
+        System.out.println(board.currentPlayer().toString() + " is thinking with " + this.searchLimits +
+                           " on " + this.threadCount + " threads");
+        this.transpositionTable.newSearch();
+        synchronized (this){
+            this.bestResult = null;
+            this.statistics = new SearchStatistics.Builder();
+        }
+
+        //helpers get their searcher before they start, so a stop sent right away is never lost.
+        final List<AlphaBeta> helperSearchers = new ArrayList<>();
+        final List<SearchControl> helperControls = new ArrayList<>();
+        final List<Thread> helperThreads = new ArrayList<>();
+        for(int i = 1; i < this.threadCount; i++){
+            final AlphaBeta helperSearcher =
+                    new AlphaBeta(this.searchLimits.getMaxDepth(), this.transpositionTable, this.searchConfig);
+            final SearchControl helperControl = new SearchControl();
+            helperSearcher.startSearch(helperControl);
+            final int startDepth = 1 + i % 2;
+            final Thread helperThread =
+                    new Thread(() -> searchIteratively(board, helperSearcher, startDepth, helperControl, false),
+                               "LazySMP helper " + i);
+            helperThread.setDaemon(true);
+            helperSearchers.add(helperSearcher);
+            helperControls.add(helperControl);
+            helperThreads.add(helperThread);
+        }
+        for(final Thread helperThread : helperThreads){
+            helperThread.start();
+        }
+
+        final AlphaBeta mainSearcher =
+                new AlphaBeta(this.searchLimits.getMaxDepth(), this.transpositionTable, this.searchConfig);
+        mainSearcher.startSearch(searchControl);
+        searchIteratively(board, mainSearcher, 1, searchControl, true);
+
+        for(final SearchControl helperControl : helperControls){
+            helperControl.stop();
+        }
+        for(final Thread helperThread : helperThreads){
+            try {
+                helperThread.join();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        final long executionTime = System.currentTimeMillis() - startTime;
+        synchronized (this){
+            //stopped before any thread finished an iteration, we still owe the caller a move.
+            if(this.bestResult == null){
+                this.bestResult = mainSearcher.getFallbackResult();
+            }
+            final int depth = this.bestResult != null ? this.bestResult.getDepth() : 0;
+            this.statistics.addSearcher(mainSearcher.getCounts(depth, executionTime));
+            for(final AlphaBeta helperSearcher : helperSearchers){
+                this.statistics.addSearcher(helperSearcher.getCounts(depth, executionTime));
+            }
+            final SearchStatistics searchStatistics = this.statistics
+                    .setElapsedMillis(executionTime)
+                    .setThreadCount(this.threadCount)
+                    .build();
+            return this.bestResult != null ? this.bestResult.withStatistics(searchStatistics) : null;
+        }
+    }
+
+    /*
+    One thread's iterative deepening loop. Only the main thread, the one with the caller's control, decides
+    when the search is over; helpers search deeper and deeper until they are stopped.
+    */
+    private void searchIteratively(final Board board,
+                                   final AlphaBeta searcher,
+                                   final int startDepth,
+                                   final SearchControl searchControl,
+                                   final boolean isMainThread){
+        Move iterationBest = null;
+        for(int depth = startDepth; depth <= this.searchLimits.getMaxDepth(); depth++){
+            final Move iterationMove = searcher.searchIteration(board, depth, iterationBest);
+            if(iterationMove == null){
+                break;
+            }
+            iterationBest = iterationMove;
+            reportIteration(new SearchResult(iterationMove, searcher.getBestValue(), depth,
+                                             searcher.getPrincipalVariation()), isMainThread);
+            if(!isMainThread){
+                continue;
+            }
+            recordIteration(searcher.getCounts(depth, searchControl.getElapsedMillis()));
+            if(!searchControl.canStartIteration(searcher.getNodesSearched())){
+                break;
+            }
+        }
+    }
+
+    private synchronized void recordIteration(final SearchStatistics.Counts counts){
+        this.statistics.addIteration(counts);
+    }
+
+    //keep the move of the deepest finished iteration, the main thread wins a tie.
+    private synchronized void reportIteration(final SearchResult searchResult, final boolean isMainThread){
+        if(this.bestResult == null || searchResult.getDepth() > this.bestResult.getDepth() ||
+           (searchResult.getDepth() == this.bestResult.getDepth() && isMainThread)){
+            this.bestResult = searchResult;
+        }
+    }
+}
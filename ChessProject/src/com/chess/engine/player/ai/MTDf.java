@@ -0,0 +1,125 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+
+import java.util.List;
+
+/*
+MTD(f): iterative deepening where every iteration is a series of null-window searches instead of one
+search with a real window. Each pass only answers whether the score is below or above a guess, which
+prunes as much as a search can, and moves the bounds; the guess starts at the score of the previous
+iteration and the passes stop once the bounds meet, at the minimax value.
+
+Most passes go over the same tree again, so this only pays with the transposition table keeping the
+bounds the previous passes found, which is why there is no constructor without one. The search is
+fail-soft, so a pass usually moves the bound by more than one point.
+*/
+public class MTDf implements SearchDriver {
+
+    private final SearchLimits searchLimits;
+    private final AlphaBeta searcher;
+    private final TranspositionTable transpositionTable;
+
+    public MTDf(final SearchLimits searchLimits, final TranspositionTable transpositionTable) {
+        this(searchLimits, transpositionTable, SearchConfig.DEFAULT);
+    }
+
+    public MTDf(final SearchLimits searchLimits,
+                final TranspositionTable transpositionTable,
+                final SearchConfig searchConfig) {
+        if(transpositionTable == null){
+            throw new IllegalArgumentException("MTD(f) needs a transposition table");
+        }
+        this.searchLimits = searchLimits;
+        this.transpositionTable = transpositionTable;
+        this.searcher = new AlphaBeta(searchLimits.getMaxDepth(), transpositionTable, searchConfig);
+    }
+
+    @Override
+    public String toString(){
+        return "MTDf";
+    }
+
+    @Override
+    public Move execute(final Board board) {
+        //no result when the side to move has no legal move, MinMax returns null there too.
+        final SearchResult searchResult = search(board);
+        return searchResult != null ? searchResult.getBestMove() : null;
+    }
+
+    @Override
+    public SearchResult search(final Board board) {
+        return search(board, SearchControl.of(this.searchLimits));
+    }
+
+    @Override
+    public SearchResult search(final Board board, final SearchControl searchControl) {
+        final long startTime = System.currentTimeMillis();
+        System.out.println(board.currentPlayer().toString() + " is thinking with " + this.searchLimits + " (MTD(f))");
+
+        this.transpositionTable.newSearch();
+        this.searcher.startSearch(searchControl);
+        final SearchStatistics.Builder statistics = new SearchStatistics.Builder();
+        SearchResult searchResult = null;
+        for(int depth = 1; depth <= this.searchLimits.getMaxDepth(); depth++){
+            final SearchResult iterationResult = searchIteration(board, depth, searchResult);
+            if(iterationResult == null){
+                //an iteration stopped by the budget is incomplete, keep the result of the previous one.
+                break;
+            }
+            searchResult = iterationResult;
+            final long elapsed = System.currentTimeMillis() - startTime;
+            statistics.addIteration(this.searcher.getCounts(depth, elapsed));
+            if(!searchControl.canStartIteration(this.searcher.getNodesSearched())){
+                break;
+            }
+        }
+        //no depth finished, fall back on the first root move the passes tried.
+        if(searchResult == null){
+            searchResult = this.searcher.getFallbackResult();
+        }
+        final long executionTime = System.currentTimeMillis() - startTime;
+        final SearchStatistics searchStatistics = statistics
+                .addSearcher(this.searcher.getCounts(searchResult != null ? searchResult.getDepth() : 0, executionTime))
+                .setElapsedMillis(executionTime)
+                .build();
+        return searchResult != null ? searchResult.withStatistics(searchStatistics) : null;
+    }
+
+    /*
+    The null-window passes of one depth, null if the budget stopped one of them. A pass that fails high
+    has proven its move reaches the bound, so the move and line we keep come from the last of those;
+    a pass that fails low only proves that no move does better than the bound.
+    */
+    private SearchResult searchIteration(final Board board, final int depth, final SearchResult previousResult){
+        int guess = previousResult != null ? previousResult.getScore() : 0;
+        Move firstMove = previousResult != null ? previousResult.getBestMove() : null;
+        int lowerBound = -AlphaBeta.INFINITY;
+        int upperBound = AlphaBeta.INFINITY;
+        Move bestMove = null;
+        List<Move> principalVariation = null;
+        while(lowerBound < upperBound){
+            final int beta = guess == lowerBound ? guess + 1 : guess;
+            final Move passMove = this.searcher.searchRoot(board, depth, firstMove, beta - 1, beta);
+            if(passMove == null){
+                return null;
+            }
+            guess = this.searcher.getBestValue();
+            if(guess < beta){
+                upperBound = guess;
+            } else {
+                lowerBound = guess;
+                bestMove = passMove;
+                principalVariation = this.searcher.getPrincipalVariation();
+                firstMove = passMove;
+            }
+            //only a mated side fails low on every pass, any move is then as good as another.
+            if(bestMove == null && upperBound == -AlphaBeta.INFINITY){
+                bestMove = passMove;
+                principalVariation = this.searcher.getPrincipalVariation();
+            }
+        }
+        return new SearchResult(bestMove, guess, depth, principalVariation);
+    }
+}
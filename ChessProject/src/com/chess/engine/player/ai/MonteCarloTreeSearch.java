@@ -0,0 +1,428 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.player.MoveTransition;
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+Monte Carlo tree search with UCT, the other way to pick a move: no alpha-beta at all, the tree grows
+towards the moves that have done well so far, and the move played is the one visited most.
+
+One playout walks down from the root picking the child with the best upper confidence bound, expands
+the first node it reaches that has no children yet, scores it and adds the score to every node on the
+way back. A node is scored by playing a few random legal moves from it and asking the evaluator about
+the board they lead to, squashed into a chance of winning between 0 and 1; with no random moves it is
+the evaluator alone, which plays much better here than random games to the end ever could.
+
+The tree is not made of node objects. A node is an index into a handful of primitive arrays allocated
+once with the driver, and the children of a node sit next to each other, so a search of a million
+nodes is a few arrays and not a million small objects for the collector. The arena is reused by every
+search; when it is full the leaves simply stop being expanded and get more playouts instead.
+
+All threads work on the one tree (tree parallelism). A thread walking down counts its visit at once,
+as a loss, and only adds the score on the way back: until then the others see that branch as worse
+than it is (a virtual loss) and spread out over other branches instead of all following the same one.
+
+The depth limit does not apply here, the search runs until the time or node budget of its control is
+spent, nodes meaning playouts, or until it is stopped. search(Board) makes its own control from the
+limits, and with neither budget in them it stops after DEFAULT_PLAYOUTS.
+*/
+public class MonteCarloTreeSearch implements SearchDriver {
+
+    public static final int DEFAULT_NODE_CAPACITY = 1 << 20;
+    public static final int DEFAULT_PLAYOUTS = 20000;
+    //the textbook sqrt(2) of UCT for results between 0 and 1.
+    private static final double EXPLORATION = Math.sqrt(2);
+    //visits counted in advance for a thread on its way down, all but one are taken back on the way up.
+    private static final int VIRTUAL_LOSS = 3;
+    //an evaluation this far ahead is a win three times out of four, like a 200 point Elo gap.
+    private static final double WIN_PROBABILITY_SCALE = 400 / Math.log(10);
+    //node values are kept in millionths so that threads can add them up atomically.
+    private static final long VALUE_UNIT = 1000000;
+    //firstChild of a node whose children are not there yet, are being made, will never be made for lack
+    //of room, or that has no legal move at all.
+    private static final int UNEXPANDED = -1;
+    private static final int EXPANDING = -2;
+    private static final int LEAF = -3;
+    private static final int TERMINAL = -4;
+    private static final int MAX_TREE_DEPTH = 256;
+
+    private final SearchLimits searchLimits;
+    private final int threadCount;
+    private final int playoutDepth;
+    private final BoardEvaluator boardEvaluator;
+
+    //the node arena, node 0 is the root.
+    private final int nodeCapacity;
+    private final AtomicInteger nodeCount;
+    private final AtomicIntegerArray firstChild;
+    private final int[] childCount;
+    //the move that leads from the parent to the node, as TranspositionTable.encodeMove() writes it.
+    private final int[] nodeMove;
+    private final AtomicIntegerArray visits;
+    //the results for the player who made nodeMove, in VALUE_UNITs.
+    private final AtomicLongArray values;
+
+    private final AtomicInteger playouts;
+    private final AtomicInteger deepestPlayout;
+    private volatile List<RootMove> rootMoves;
+
+    public MonteCarloTreeSearch(final SearchLimits searchLimits, final int threadCount) {
+        this(searchLimits, threadCount, DEFAULT_NODE_CAPACITY, 0);
+    }
+
+    //playoutDepth random moves are played before the evaluator is asked, 0 asks it at the new node.
+    public MonteCarloTreeSearch(final SearchLimits searchLimits,
+                                final int threadCount,
+                                final int nodeCapacity,
+                                final int playoutDepth) {
+        if(threadCount < 1){
+            throw new IllegalArgumentException("Monte Carlo tree search needs at least one thread");
+        }
+        if(nodeCapacity < 2 || playoutDepth < 0){
+            throw new IllegalArgumentException("Bad node capacity " + nodeCapacity + " or playout depth " +
+                                               playoutDepth);
+        }
+        this.searchLimits = searchLimits;
+        this.threadCount = threadCount;
+        this.playoutDepth = playoutDepth;
+        this.boardEvaluator = new StandardBoardEvaluator();
+        this.nodeCapacity = nodeCapacity;
+        this.nodeCount = new AtomicInteger();
+        this.firstChild = new AtomicIntegerArray(nodeCapacity);
+        this.childCount = new int[nodeCapacity];
+        this.nodeMove = new int[nodeCapacity];
+        this.visits = new AtomicIntegerArray(nodeCapacity);
+        this.values = new AtomicLongArray(nodeCapacity);
+        this.playouts = new AtomicInteger();
+        this.deepestPlayout = new AtomicInteger();
+        this.rootMoves = ImmutableList.of();
+    }
+
+    @Override
+    public String toString(){
+        return "MonteCarloTreeSearch";
+    }
+
+    @Override
+    public Move execute(final Board board) {
+        //no result when the side to move has no legal move, MinMax returns null there too.
+        final SearchResult searchResult = search(board);
+        return searchResult != null ? searchResult.getBestMove() : null;
+    }
+
+    @Override
+    public SearchResult search(final Board board) {
+        final SearchControl searchControl = SearchControl.of(this.searchLimits);
+        if(!searchControl.hasLimits()){
+            searchControl.setNodeLimit(DEFAULT_PLAYOUTS);
+        }
+        return search(board, searchControl);
+    }
+
+    /*
+    The most visited root move. Its score is its winning chance turned back into an evaluation, its depth
+    the deepest the tree got, its line the most visited child from there on down. One search at a time,
+    the tree belongs to the driver.
+    */
+    @Override
+    public synchronized SearchResult search(final Board board, final SearchControl searchControl) {
+        final long startTime = System.currentTimeMillis();
+        System.out.println(board.currentPlayer().toString() + " is thinking with " + this.searchLimits +
+                           " on " + this.threadCount + " Monte Carlo threads");
+        this.nodeCount.set(1);
+        this.firstChild.set(0, UNEXPANDED);
+        this.visits.set(0, 0);
+        this.values.set(0, 0);
+        this.playouts.set(0);
+        this.deepestPlayout.set(0);
+
+        final List<Thread> helperThreads = new ArrayList<>();
+        for(int i = 1; i < this.threadCount; i++){
+            final Thread helperThread = new Thread(() -> runPlayouts(board, searchControl),
+                                                   "MonteCarloTreeSearch helper " + i);
+            helperThread.setDaemon(true);
+            helperThreads.add(helperThread);
+        }
+        for(final Thread helperThread : helperThreads){
+            helperThread.start();
+        }
+        runPlayouts(board, searchControl);
+        for(final Thread helperThread : helperThreads){
+            try {
+                helperThread.join();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        this.rootMoves = collectRootMoves(board);
+        final long executionTime = System.currentTimeMillis() - startTime;
+        //one iteration that took the whole search, counted in playouts.
+        final SearchStatistics.Counts counts = new SearchStatistics.Counts(this.deepestPlayout.get(), executionTime,
+                                                                           this.playouts.get(), 0, 0, 0, 0, 0, 0);
+        final SearchStatistics searchStatistics = new SearchStatistics.Builder()
+                .addIteration(counts)
+                .addSearcher(counts)
+                .setElapsedMillis(executionTime)
+                .setThreadCount(this.threadCount)
+                .build();
+        if(this.rootMoves.isEmpty()){
+            return null;
+        }
+        final RootMove bestMove = this.rootMoves.get(0);
+        final SearchResult searchResult = new SearchResult(bestMove.getMove(), scoreOf(bestMove.getWinRate()),
+                                                           this.deepestPlayout.get(), principalVariation(board),
+                                                           searchStatistics);
+        return searchResult;
+    }
+
+    //the root moves of the last search, most visited first.
+    public List<RootMove> getRootMoves(){
+        return this.rootMoves;
+    }
+
+    //one thread's playouts. The first one always runs, so even a search stopped at once has a move.
+    private void runPlayouts(final Board board, final SearchControl searchControl){
+        final int[] path = new int[MAX_TREE_DEPTH + 1];
+        do {
+            playout(board, path);
+        } while(!searchControl.isOutOfLimits(this.playouts.incrementAndGet()));
+    }
+
+    private void playout(final Board rootBoard, final int[] path){
+        Board board = rootBoard;
+        int node = 0;
+        int pathLength = 0;
+        path[pathLength++] = node;
+        this.visits.addAndGet(node, VIRTUAL_LOSS);
+        while(true){
+            int children = this.firstChild.get(node);
+            if(children == UNEXPANDED && this.firstChild.compareAndSet(node, UNEXPANDED, EXPANDING)){
+                children = expand(node, board);
+                break;
+            }
+            //a leaf, or a node another thread is expanding right now: score it as it is.
+            if(children < 0 || pathLength > MAX_TREE_DEPTH){
+                break;
+            }
+            node = selectChild(node, children);
+            path[pathLength++] = node;
+            this.visits.addAndGet(node, VIRTUAL_LOSS);
+            board = findMove(board, this.nodeMove[node]).execute();
+        }
+        updateDeepestPlayout(pathLength - 1);
+
+        //from the point of view of the player to move at the last node, the one who did not make its move.
+        double result = this.firstChild.get(node) == TERMINAL ? terminalResult(board) : evaluate(board);
+        for(int i = pathLength - 1; i >= 0; i--){
+            result = 1 - result;
+            this.values.addAndGet(path[i], (long) (result * VALUE_UNIT));
+            this.visits.addAndGet(path[i], 1 - VIRTUAL_LOSS);
+        }
+    }
+
+    //makes the children of a node the thread has just claimed, TERMINAL or LEAF when it gets none.
+    private int expand(final int node, final Board board){
+        final List<Move> legalMoves = new ArrayList<>();
+        for(final Move move : board.currentPlayer().getLegalMoves()){
+            if(board.currentPlayer().makeMove(move).getMoveStatus().isDone()){
+                legalMoves.add(move);
+            }
+        }
+        if(legalMoves.isEmpty()){
+            this.firstChild.set(node, TERMINAL);
+            return TERMINAL;
+        }
+        final int start = allocate(legalMoves.size());
+        if(start < 0){
+            this.firstChild.set(node, LEAF);
+            return LEAF;
+        }
+        for(int i = 0; i < legalMoves.size(); i++){
+            final int child = start + i;
+            this.nodeMove[child] = TranspositionTable.encodeMove(legalMoves.get(i));
+            this.firstChild.set(child, UNEXPANDED);
+            this.visits.set(child, 0);
+            this.values.set(child, 0);
+        }
+        this.childCount[node] = legalMoves.size();
+        //publishes the children, childCount included, to the threads that read firstChild after this.
+        this.firstChild.set(node, start);
+        return start;
+    }
+
+    //the first of count new nodes, -1 once the arena is full; the counter never goes past the capacity.
+    private int allocate(final int count){
+        while(true){
+            final int start = this.nodeCount.get();
+            if(count > this.nodeCapacity - start){
+                return -1;
+            }
+            if(this.nodeCount.compareAndSet(start, start + count)){
+                return start;
+            }
+        }
+    }
+
+    //UCT: the best average result plus a bonus for the children that were tried least, unvisited ones first.
+    private int selectChild(final int node, final int children){
+        final double logParentVisits = Math.log(Math.max(1, this.visits.get(node)));
+        int bestChild = children;
+        double bestBound = Double.NEGATIVE_INFINITY;
+        for(int child = children; child < children + this.childCount[node]; child++){
+            final int childVisits = this.visits.get(child);
+            if(childVisits == 0){
+                return child;
+            }
+            final double bound = (double) this.values.get(child) / VALUE_UNIT / childVisits +
+                                 EXPLORATION * Math.sqrt(logParentVisits / childVisits);
+            if(bound > bestBound){
+                bestBound = bound;
+                bestChild = child;
+            }
+        }
+        return bestChild;
+    }
+
+    /*
+    The chance the player to move wins, after playoutDepth random legal moves. Like in the search a mate
+    at the end of the playout is left to the evaluator, which knows it, and a stalemate goes unnoticed.
+    */
+    private double evaluate(final Board leafBoard){
+        Board board = leafBoard;
+        boolean sideToMoveChanged = false;
+        for(int ply = 0; ply < this.playoutDepth; ply++){
+            final Board next = playRandomMove(board);
+            if(next == null){
+                final double result = terminalResult(board);
+                return sideToMoveChanged ? 1 - result : result;
+            }
+            board = next;
+            sideToMoveChanged = !sideToMoveChanged;
+        }
+        final int whiteScore = this.boardEvaluator.evaluate(board, 0);
+        final int score = board.currentPlayer().getAlliance().isWhite() ? whiteScore : -whiteScore;
+        final double result = 1 / (1 + Math.exp(-score / WIN_PROBABILITY_SCALE));
+        return sideToMoveChanged ? 1 - result : result;
+    }
+
+    //no legal move: mated, or stalemated which is half a win.
+    private static double terminalResult(final Board board){
+        return board.currentPlayer().isInCheck() ? 0 : 0.5;
+    }
+
+    //a random legal move made on the board, null when there is none.
+    private static Board playRandomMove(final Board board){
+        final List<Move> moves = new ArrayList<>(board.currentPlayer().getLegalMoves());
+        Collections.shuffle(moves, ThreadLocalRandom.current());
+        for(final Move move : moves){
+            final MoveTransition transition = board.currentPlayer().makeMove(move);
+            if(transition.getMoveStatus().isDone()){
+                return transition.getTransitionBoard();
+            }
+        }
+        return null;
+    }
+
+    private static Move findMove(final Board board, final int encodedMove){
+        for(final Move move : board.currentPlayer().getLegalMoves()){
+            if(TranspositionTable.isSameMove(move, encodedMove)){
+                return move;
+            }
+        }
+        throw new IllegalStateException("No move " + encodedMove + " on the board");
+    }
+
+    private void updateDeepestPlayout(final int depth){
+        int deepest = this.deepestPlayout.get();
+        while(depth > deepest && !this.deepestPlayout.compareAndSet(deepest, depth)){
+            deepest = this.deepestPlayout.get();
+        }
+    }
+
+    private List<RootMove> collectRootMoves(final Board board){
+        final int children = this.firstChild.get(0);
+        if(children < 0){
+            return ImmutableList.of();
+        }
+        final List<RootMove> rootMoves = new ArrayList<>();
+        for(int child = children; child < children + this.childCount[0]; child++){
+            final int childVisits = this.visits.get(child);
+            rootMoves.add(new RootMove(findMove(board, this.nodeMove[child]), childVisits,
+                                       childVisits == 0 ? 0 : (double) this.values.get(child) / VALUE_UNIT / childVisits));
+        }
+        Collections.sort(rootMoves, (first, second) -> Integer.compare(second.getVisits(), first.getVisits()));
+        return ImmutableList.copyOf(rootMoves);
+    }
+
+    //the most visited child all the way down, as far as the tree goes.
+    private List<Move> principalVariation(final Board rootBoard){
+        final List<Move> line = new ArrayList<>();
+        Board board = rootBoard;
+        int node = 0;
+        while(this.firstChild.get(node) >= 0 && line.size() < MAX_TREE_DEPTH){
+            final int children = this.firstChild.get(node);
+            int bestChild = -1;
+            for(int child = children; child < children + this.childCount[node]; child++){
+                if(this.visits.get(child) > 0 && (bestChild < 0 || this.visits.get(child) > this.visits.get(bestChild))){
+                    bestChild = child;
+                }
+            }
+            if(bestChild < 0){
+                break;
+            }
+            final Move move = findMove(board, this.nodeMove[bestChild]);
+            line.add(move);
+            board = move.execute();
+            node = bestChild;
+        }
+        return ImmutableList.copyOf(line);
+    }
+
+    //the evaluation that would give the winning chance, the inverse of the squashing in evaluate().
+    private static int scoreOf(final double winRate){
+        final double clamped = Math.min(0.999, Math.max(0.001, winRate));
+        return (int) Math.round(WIN_PROBABILITY_SCALE * Math.log(clamped / (1 - clamped)));
+    }
+
+    //what the search found out about one root move.
+    public static final class RootMove {
+        private final Move move;
+        private final int visits;
+        private final double winRate;
+
+        RootMove(final Move move, final int visits, final double winRate) {
+            this.move = move;
+            this.visits = visits;
+            this.winRate = winRate;
+        }
+
+        public Move getMove(){
+            return this.move;
+        }
+
+        public int getVisits(){
+            return this.visits;
+        }
+
+        //the average result for the side to move at the root, between 0 and 1.
+        public double getWinRate(){
+            return this.winRate;
+        }
+
+        @Override
+        public String toString(){
+            return this.move + " " + this.visits + " visits, " + String.format("%.3f", this.winRate);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.SearchBoard;
+import com.chess.engine.pieces.Piece;
+
+/*
+Puts the moves of a node in the order the search should try them. Alpha-beta only prunes after a move
+good enough to cut off, and the sooner it comes the less we search, so in order:
+
+    1. the best move stored for this position in the transposition table
+    2. captures and promotions, most valuable victim first and, between equal victims, least valuable
+       attacker first (MVV-LVA)
+    3. the two killer moves of this ply: quiet moves that cut off a sibling node at the same ply
+    4. the other quiet moves, by how often and how deep they caused a cutoff anywhere (history heuristic)
+
+Each ply has its own move and score arrays, allocated once, that SearchBoard writes its int moves into,
+and nextMove() does one step of a selection sort in them. A node that cuts off after two moves never
+pays for sorting the other thirty.
+One MoveSorter belongs to one search thread.
+*/
+final class MoveSorter {
+
+    static final int MAX_PLY = SearchLimits.MAX_DEPTH + 64;
+
+    private static final int HASH_MOVE_SCORE = 1 << 30;
+    private static final int CAPTURE_SCORE = 1 << 28;
+    private static final int FIRST_KILLER_SCORE = 1 << 27;
+    private static final int SECOND_KILLER_SCORE = FIRST_KILLER_SCORE - 1;
+    private static final int HISTORY_LIMIT = 1 << 26;
+    //a capture by the king still ranks after the same capture by any other piece.
+    private static final int KING_ATTACKER_VALUE = 1000;
+
+    private final int[][] moves;
+    private final int[][] scores;
+    private final int[][] killerMoves;
+    private final int[] history;
+
+    MoveSorter(){
+        this.moves = new int[MAX_PLY][SearchBoard.MAX_MOVES];
+        this.scores = new int[MAX_PLY][SearchBoard.MAX_MOVES];
+        this.killerMoves = new int[MAX_PLY][2];
+        this.history = new int[64 * 64];
+    }
+
+    //a new search keeps half of what history learned and forgets the killers, they belong to the old plies.
+    void newSearch(){
+        for(final int[] killers : this.killerMoves){
+            killers[0] = 0;
+            killers[1] = 0;
+        }
+        for(int i = 0; i < this.history.length; i++){
+            this.history[i] >>= 1;
+        }
+    }
+
+    //generate and score the moves of the board into the arrays of this ply, returns how many there are.
+    int orderMoves(final SearchBoard board,
+                   final int ply,
+                   final int hashMove,
+                   final boolean capturesOnly){
+        final int[] plyMoves = this.moves[ply];
+        final int[] plyScores = this.scores[ply];
+        final int[] killers = this.killerMoves[ply];
+        final int moveCount = board.generateMoves(plyMoves, capturesOnly);
+        for(int i = 0; i < moveCount; i++){
+            final int move = plyMoves[i];
+            final int encodedMove = TranspositionTable.encodeMove(move);
+            final int score;
+            if(encodedMove == hashMove){
+                score = HASH_MOVE_SCORE;
+            } else if(SearchBoard.isCapture(move)){
+                score = CAPTURE_SCORE + mvvLva(board, move);
+            } else if(SearchBoard.isPromotion(move)){
+                score = CAPTURE_SCORE;
+            } else if(encodedMove == killers[0]){
+                score = FIRST_KILLER_SCORE;
+            } else if(encodedMove == killers[1]){
+                score = SECOND_KILLER_SCORE;
+            } else {
+                score = this.history[encodedMove];
+            }
+            plyScores[i] = score;
+        }
+        return moveCount;
+    }
+
+    //swap the best remaining move into place and return it.
+    int nextMove(final int ply, final int index, final int moveCount){
+        final int[] plyMoves = this.moves[ply];
+        final int[] plyScores = this.scores[ply];
+        int bestIndex = index;
+        for(int i = index + 1; i < moveCount; i++){
+            if(plyScores[i] > plyScores[bestIndex]){
+                bestIndex = i;
+            }
+        }
+        final int bestMove = plyMoves[bestIndex];
+        final int bestScore = plyScores[bestIndex];
+        plyMoves[bestIndex] = plyMoves[index];
+        plyScores[bestIndex] = plyScores[index];
+        plyMoves[index] = bestMove;
+        plyScores[index] = bestScore;
+        return bestMove;
+    }
+
+    //true for the move nextMove() returned at index if it is quiet and neither the hash move nor a killer.
+    boolean isHistoryMove(final int ply, final int index){
+        return this.scores[ply][index] < SECOND_KILLER_SCORE;
+    }
+
+    //a quiet move that cut off becomes a killer for its ply, and the deeper the cutoff the more history it gains.
+    void recordCutoff(final int move, final int ply, final int depth){
+        if(SearchBoard.isCapture(move) || SearchBoard.isPromotion(move)){
+            return;
+        }
+        final int encodedMove = TranspositionTable.encodeMove(move);
+        final int[] killers = this.killerMoves[ply];
+        if(killers[0] != encodedMove){
+            killers[1] = killers[0];
+            killers[0] = encodedMove;
+        }
+        this.history[encodedMove] += depth * depth;
+        if(this.history[encodedMove] >= HISTORY_LIMIT){
+            for(int i = 0; i < this.history.length; i++){
+                this.history[i] >>= 1;
+            }
+        }
+    }
+
+    //en passant takes a pawn from a tile other than the one the move lands on.
+    private static int mvvLva(final SearchBoard board, final int move){
+        final Piece.PieceType attackedType = SearchBoard.getKind(move) == SearchBoard.EN_PASSANT ?
+                                             Piece.PieceType.PAWN : board.getPieceType(SearchBoard.getTo(move));
+        final int attackerValue = Math.min(board.getPieceType(SearchBoard.getFrom(move)).getPieceValue(),
+                                           KING_ATTACKER_VALUE);
+        return attackedType.getPieceValue() * 10 - attackerValue;
+    }
+}
@@ -0,0 +1,163 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/*
+Analysis mode: iterative deepening that keeps the best N root moves instead of one, each with its
+score and its line. Every iteration searches the root N times, and each time leaves out the moves the
+earlier searches of the iteration already returned, so the second search finds the second best move
+and so on. They all share one searcher and one transposition table: what the search for the best line
+stored about the positions below the root still orders and cuts the searches for the next ones, which
+is why this costs much less than N separate searches.
+
+Each line starts with the move it had in the previous iteration, inside an aspiration window around
+its previous score. As a SearchDriver it plays the best line, so it can stand in for the others.
+*/
+public class MultiPV implements SearchDriver {
+
+    private final SearchLimits searchLimits;
+    private final int lineCount;
+    private final AlphaBeta searcher;
+    private final TranspositionTable transpositionTable;
+
+    public MultiPV(final SearchLimits searchLimits,
+                   final int lineCount,
+                   final TranspositionTable transpositionTable) {
+        this(searchLimits, lineCount, transpositionTable, SearchConfig.DEFAULT);
+    }
+
+    public MultiPV(final SearchLimits searchLimits,
+                   final int lineCount,
+                   final TranspositionTable transpositionTable,
+                   final SearchConfig searchConfig) {
+        if(lineCount < 1){
+            throw new IllegalArgumentException("Need at least one line");
+        }
+        this.searchLimits = searchLimits;
+        this.lineCount = lineCount;
+        this.transpositionTable = transpositionTable;
+        this.searcher = new AlphaBeta(searchLimits.getMaxDepth(), transpositionTable, searchConfig);
+    }
+
+    @Override
+    public String toString(){
+        return "MultiPV " + this.lineCount;
+    }
+
+    @Override
+    public Move execute(final Board board) {
+        //no result when the side to move has no legal move, MinMax returns null there too.
+        final SearchResult searchResult = search(board);
+        return searchResult != null ? searchResult.getBestMove() : null;
+    }
+
+    @Override
+    public SearchResult search(final Board board) {
+        return search(board, SearchControl.of(this.searchLimits));
+    }
+
+    @Override
+    public SearchResult search(final Board board, final SearchControl searchControl) {
+        final List<SearchResult> lines = analyze(board, searchControl);
+        return lines.isEmpty() ? null : lines.get(0);
+    }
+
+    public List<SearchResult> analyze(final Board board) {
+        return analyze(board, SearchControl.of(this.searchLimits));
+    }
+
+    /*
+    The best lines of the last iteration that found all of them, best first, at most as many as the
+    board has legal moves. An iteration the control stops halfway is thrown away whole, so the lines
+    always come from the same depth and their scores can be compared.
+    */
+    public List<SearchResult> analyze(final Board board, final SearchControl searchControl) {
+        final long startTime = System.currentTimeMillis();
+        final int lineCount = Math.min(this.lineCount, countLegalMoves(board));
+        System.out.println(board.currentPlayer().toString() + " is analysing " + lineCount + " lines with " +
+                           this.searchLimits);
+        if(lineCount == 0){
+            return ImmutableList.of();
+        }
+        if(this.transpositionTable != null){
+            this.transpositionTable.newSearch();
+        }
+        this.searcher.startSearch(searchControl);
+        final SearchStatistics.Builder statistics = new SearchStatistics.Builder();
+        List<SearchResult> lines = ImmutableList.of();
+        for(int depth = 1; depth <= this.searchLimits.getMaxDepth(); depth++){
+            final List<SearchResult> iterationLines = searchLines(board, depth, lineCount, lines);
+            if(iterationLines == null){
+                break;
+            }
+            lines = iterationLines;
+            final long elapsed = System.currentTimeMillis() - startTime;
+            statistics.addIteration(this.searcher.getCounts(depth, elapsed));
+            if(!searchControl.canStartIteration(this.searcher.getNodesSearched())){
+                break;
+            }
+        }
+        //not even depth 1 finished for every line, the best move the searcher did finish is all we can give.
+        if(lines.isEmpty()){
+            lines = ImmutableList.of(this.searcher.getFallbackResult());
+        }
+        final long executionTime = System.currentTimeMillis() - startTime;
+        final int depth = lines.get(0).getDepth();
+        final SearchStatistics searchStatistics = statistics
+                .addSearcher(this.searcher.getCounts(depth, executionTime))
+                .setElapsedMillis(executionTime)
+                .build();
+        final List<SearchResult> results = new ArrayList<>();
+        for(final SearchResult line : lines){
+            results.add(line.withStatistics(searchStatistics));
+        }
+        return ImmutableList.copyOf(results);
+    }
+
+    //one iteration: the best line, then the best without its move, and so on. Null if it was stopped.
+    private List<SearchResult> searchLines(final Board board,
+                                           final int depth,
+                                           final int lineCount,
+                                           final List<SearchResult> previousLines){
+        final List<Move> foundMoves = new ArrayList<>();
+        final List<SearchResult> lines = new ArrayList<>();
+        for(int i = 0; i < lineCount; i++){
+            //the best line of the previous iteration whose move is still free is the likely next one.
+            SearchResult previousLine = null;
+            for(final SearchResult line : previousLines){
+                if(!foundMoves.contains(line.getBestMove())){
+                    previousLine = line;
+                    break;
+                }
+            }
+            final Move move = previousLine != null ?
+                    this.searcher.searchIteration(board, depth, previousLine.getBestMove(), foundMoves,
+                                                  previousLine.getScore()) :
+                    this.searcher.searchIteration(board, depth, null, foundMoves, 0);
+            if(move == null){
+                return null;
+            }
+            foundMoves.add(move);
+            lines.add(new SearchResult(move, this.searcher.getBestValue(), depth, this.searcher.getPrincipalVariation()));
+        }
+        //a later search can come back a little higher than an earlier one, the list is ranked by score.
+        Collections.sort(lines, (first, second) -> Integer.compare(second.getScore(), first.getScore()));
+        return lines;
+    }
+
+    private static int countLegalMoves(final Board board){
+        int legalMoves = 0;
+        for(final Move move : board.currentPlayer().getLegalMoves()){
+            if(board.currentPlayer().makeMove(move).getMoveStatus().isDone()){
+                legalMoves++;
+            }
+        }
+        return legalMoves;
+    }
+}
@@ -0,0 +1,139 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.player.MoveTransition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+Searches the root moves at the same time, one fork/join task per move. Boards never change once built,
+so the tasks share nothing but the root board and the best score found so far: each one gets its own
+AlphaBeta. The first move is searched alone with a full window, so the others start with a real bound,
+and every task that finishes raises the bound for the tasks that start after it.
+
+A move is searched with a window starting one point below the best score, so a move that ties the best
+still gets its exact score and one that cannot reach it fails low at once. The scores are then compared
+in the order of the legal moves, exactly like MinMax does, so the same position always gives the same
+move whatever the number of threads; only the node count depends on the timing.
+*/
+public class ParallelAlphaBeta implements MoveStrategy {
+
+    private final int searchDepth;
+    private final ForkJoinPool pool;
+    //one searcher per pool thread, its tables are much bigger than what a root move task searches.
+    private final ThreadLocal<AlphaBeta> searchers;
+    private long nodesSearched;
+
+    public ParallelAlphaBeta(final int searchDepth) {
+        this(searchDepth, ForkJoinPool.commonPool());
+    }
+
+    public ParallelAlphaBeta(final int searchDepth, final ForkJoinPool pool) {
+        this.searchDepth = searchDepth;
+        this.pool = pool;
+        this.searchers = ThreadLocal.withInitial(() -> new AlphaBeta(searchDepth - 1));
+    }
+
+    @Override
+    public String toString(){
+        return "ParallelAlphaBeta";
+    }
+
+    public long getNodesSearched(){
+        return this.nodesSearched;
+    }
+
+    @Override
+    public Move execute(final Board board) {
+        final long startTime = System.currentTimeMillis();
+        System.out.println(board.currentPlayer().toString() + " is thinking with depth = " + this.searchDepth +
+                           " on " + this.pool.getParallelism() + " threads");
+
+        final AtomicInteger bestScore = new AtomicInteger(-AlphaBeta.INFINITY);
+        final List<RootMoveTask> tasks = new ArrayList<>();
+        for(final Move move : board.currentPlayer().getLegalMoves()){
+            final MoveTransition moveTransition = board.currentPlayer().makeMove(move);
+            if(moveTransition.getMoveStatus().isDone()){
+                tasks.add(new RootMoveTask(move, moveTransition.getTransitionBoard(), this.searchDepth - 1,
+                                           bestScore, this.searchers));
+            }
+        }
+        if(!tasks.isEmpty()){
+            this.pool.invoke(tasks.get(0));
+            this.pool.invoke(new RootSplitTask(tasks.subList(1, tasks.size())));
+        }
+
+        Move bestMove = null;
+        int highestSeenValue = Integer.MIN_VALUE;
+        this.nodesSearched = 0;
+        for(final RootMoveTask task : tasks){
+            //MinMax keeps the last move among equal scores, so we do the same.
+            if(task.score >= highestSeenValue){
+                highestSeenValue = task.score;
+                bestMove = task.move;
+            }
+            this.nodesSearched += task.nodesSearched;
+        }
+        final long executionTime = System.currentTimeMillis() - startTime;
+        System.out.println(executionTime + " ms, " + this.nodesSearched + " nodes");
+        return bestMove;
+    }
+
+    //forks every root move and waits for all of them.
+    private static class RootSplitTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<RootMoveTask> tasks;
+
+        RootSplitTask(final List<RootMoveTask> tasks){
+            this.tasks = tasks;
+        }
+
+        @Override
+        protected void compute() {
+            invokeAll(this.tasks);
+        }
+    }
+
+    private static class RootMoveTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Move move;
+        private final Board transitionBoard;
+        private final int depth;
+        private final AtomicInteger bestScore;
+        private final ThreadLocal<AlphaBeta> searchers;
+        //read once the task is done, the join makes them visible.
+        private int score;
+        private long nodesSearched;
+
+        RootMoveTask(final Move move,
+                     final Board transitionBoard,
+                     final int depth,
+                     final AtomicInteger bestScore,
+                     final ThreadLocal<AlphaBeta> searchers){
+            this.move = move;
+            this.transitionBoard = transitionBoard;
+            this.depth = depth;
+            this.bestScore = bestScore;
+            this.searchers = searchers;
+        }
+
+        @Override
+        protected void compute() {
+            final int best = this.bestScore.get();
+            final int alpha = best == -AlphaBeta.INFINITY ? -AlphaBeta.INFINITY : best - 1;
+            final AlphaBeta searcher = this.searchers.get();
+            searcher.startSearch(null);
+            //the child is scored for the opponent, negate it back to the side that moves at the root.
+            this.score = -searcher.searchPosition(this.transitionBoard, this.depth, -AlphaBeta.INFINITY, -alpha);
+            this.nodesSearched = searcher.getNodesSearched();
+            this.bestScore.accumulateAndGet(this.score, Math::max);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.player.MoveTransition;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Random;
+
+/*
+An opening book in the Polyglot .bin layout: 16-byte big-endian entries sorted by position key,
+
+    key (8 bytes) | move (2 bytes) | weight (2 bytes) | learn (4 bytes)
+
+and a move packed as to file (bits 0-2), to row (3-5), from file (6-8), from row (9-11), promotion
+piece (12-14, 4 for a queen). Rows count from white's side, castling is written as the king taking its
+own rook.
+
+The file is mapped read-only, the operating system pages in what the binary search touches and the
+heap never holds the book. The key is Board.getZobristKey(): this engine's start position is not the
+standard one (kings on the d-file) and its keys are not Polyglot's Random64 ones, so books for it come
+from PgnBookBuilder, not from the ones found online.
+*/
+public final class PolyglotBook {
+
+    public static final int ENTRY_SIZE = 16;
+    private static final int QUEEN_PROMOTION = 4;
+
+    private final MappedByteBuffer entries;
+    private final int entryCount;
+
+    public PolyglotBook(final File bookFile) throws IOException {
+        try(final RandomAccessFile file = new RandomAccessFile(bookFile, "r");
+            final FileChannel channel = file.getChannel()){
+            final long size = channel.size();
+            if(size % ENTRY_SIZE != 0 || size / ENTRY_SIZE > Integer.MAX_VALUE / ENTRY_SIZE){
+                throw new IOException(bookFile + " is not a book this reader can map: " + size + " bytes");
+            }
+            //the mapping stays valid once the channel is closed.
+            this.entries = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            this.entries.order(ByteOrder.BIG_ENDIAN);
+            this.entryCount = (int) (size / ENTRY_SIZE);
+        }
+    }
+
+    public int getEntryCount(){
+        return this.entryCount;
+    }
+
+    /*
+    A book move for the board, or null when the position is not in the book or none of its moves is
+    legal here. Among several moves one is picked at random in proportion to its weight, so the engine
+    does not play the same opening every game.
+    */
+    public Move findMove(final Board board, final Random random){
+        final long key = board.getZobristKey();
+        final int first = firstEntryOf(key);
+        int totalWeight = 0;
+        int last = first;
+        while(last < this.entryCount && keyAt(last) == key){
+            totalWeight += weightAt(last);
+            last++;
+        }
+        if(first == last){
+            return null;
+        }
+        //walk the moves from the one the dice landed on, so an illegal entry does not lose the position.
+        int pick = totalWeight > 0 ? random.nextInt(totalWeight) : 0;
+        int start = first;
+        while(start < last - 1 && pick >= weightAt(start)){
+            pick -= weightAt(start);
+            start++;
+        }
+        for(int i = 0; i < last - first; i++){
+            final int entry = first + (start - first + i) % (last - first);
+            final Move move = decodeMove(board, moveAt(entry));
+            if(move != null){
+                return move;
+            }
+        }
+        return null;
+    }
+
+    //the entry with the most weight for the board, for callers that want the book to be deterministic.
+    public Move findBestMove(final Board board){
+        final long key = board.getZobristKey();
+        Move bestMove = null;
+        int bestWeight = -1;
+        for(int entry = firstEntryOf(key); entry < this.entryCount && keyAt(entry) == key; entry++){
+            if(weightAt(entry) > bestWeight){
+                final Move move = decodeMove(board, moveAt(entry));
+                if(move != null){
+                    bestMove = move;
+                    bestWeight = weightAt(entry);
+                }
+            }
+        }
+        return bestMove;
+    }
+
+    //lower bound: the first entry whose key is not below the given one, unsigned like the file is sorted.
+    private int firstEntryOf(final long key){
+        int low = 0;
+        int high = this.entryCount;
+        while(low < high){
+            final int middle = (low + high) >>> 1;
+            if(Long.compareUnsigned(keyAt(middle), key) < 0){
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long keyAt(final int entry){
+        return this.entries.getLong(entry * ENTRY_SIZE);
+    }
+
+    private int moveAt(final int entry){
+        return this.entries.getShort(entry * ENTRY_SIZE + 8) & 0xFFFF;
+    }
+
+    private int weightAt(final int entry){
+        return this.entries.getShort(entry * ENTRY_SIZE + 10) & 0xFFFF;
+    }
+
+    //the legal move of the board the book move stands for, or null if there is none.
+    private static Move decodeMove(final Board board, final int bookMove){
+        final int promotion = (bookMove >>> 12) & 7;
+        if(promotion != 0 && promotion != QUEEN_PROMOTION){
+            //pawns in this engine only ever become queens.
+            return null;
+        }
+        final int from = tileOf((bookMove >>> 6) & 7, (bookMove >>> 9) & 7);
+        final int to = tileOf(bookMove & 7, (bookMove >>> 3) & 7);
+        Move move = Move.MoveFactory.createMove(board, from, to);
+        if(move == Move.NULL_MOVE){
+            move = findCastleMove(board, from, to);
+            if(move == null){
+                return null;
+            }
+        }
+        final MoveTransition transition = board.currentPlayer().makeMove(move);
+        return transition.getMoveStatus().isDone() ? move : null;
+    }
+
+    //the book writes castling as the king moving onto its rook.
+    private static Move findCastleMove(final Board board, final int kingTile, final int rookTile){
+        for(final Move move : board.currentPlayer().getLegalMoves()){
+            if(move instanceof Move.CastleMove && move.getCurrentCoordinate() == kingTile &&
+               ((Move.CastleMove) move).getCastleRook().getPiecePosition() == rookTile){
+                return move;
+            }
+        }
+        return null;
+    }
+
+    //the book move for one of our moves, what a book writer stores.
+    public static int encodeMove(final Move move){
+        final int from = move.getCurrentCoordinate();
+        final int to = move instanceof Move.CastleMove ?
+                ((Move.CastleMove) move).getCastleRook().getPiecePosition() :
+                move.getDestinationCoordinate();
+        final int promotion = move instanceof Move.PawnPromotion ? QUEEN_PROMOTION : 0;
+        return promotion << 12 | rowOf(from) << 9 | fileOf(from) << 6 | rowOf(to) << 3 | fileOf(to);
+    }
+
+    //tile 0 is a8 in this engine, row 0 is white's first rank in the book.
+    private static int tileOf(final int file, final int row){
+        return (7 - row) * 8 + file;
+    }
+
+    private static int fileOf(final int tile){
+        return tile % 8;
+    }
+
+    private static int rowOf(final int tile){
+        return 7 - tile / 8;
+    }
+}
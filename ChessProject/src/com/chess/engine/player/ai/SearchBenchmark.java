@@ -0,0 +1,188 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.pgn.FenUtilities;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/*
+Runs search strategies on a fixed set of positions and prints how long they take, so changes to the
+search can be measured instead of guessed.
+
+    java com.chess.engine.player.ai.SearchBenchmark [depth] [threads]
+*/
+public final class SearchBenchmark {
+
+    static final String[] BENCHMARK_POSITIONS = {
+            FenUtilities.STANDARD_BOARD_FEN,
+            "r1bkqb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBKQ2R w - - 4 4",
+            "r2kq2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R2KQ2R w - - 0 1",
+            "r1b2rk1/pp1nqppp/2pbpn2/3p4/2PP4/2NBPN2/PPQ2PPP/R1B2RK1 w - - 0 9",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "4rrk1/pp3ppp/2p5/8/3Pq3/2Q1B3/PP3PPP/R4RK1 b - - 0 20"
+    };
+
+    private static final int COMPARISON_TABLE_SIZE = 16;
+    private static final long PONDER_MILLIS = 3000;
+    private static final long PONDER_HIT_MILLIS = 1000;
+
+    //prevent the user from instantiating this class.
+    private SearchBenchmark(){
+        throw new RuntimeException("Not instantiable!");
+    }
+
+    public static void main(final String[] args){
+        final int depth = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        final int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        reportNodeSavings(depth);
+        reportParallelSpeedup(depth, new ForkJoinPool(threads));
+        reportDriverComparison(depth, threads);
+        checkPonderHit(PONDER_MILLIS, PONDER_HIT_MILLIS);
+    }
+
+    /*
+    Nodes searched at a fixed depth with each selective technique switched on alone, then all together,
+    against DEFAULT with all of them off. Fewer nodes is only half the story, so the moves are compared too.
+    */
+    public static void reportNodeSavings(final int depth){
+        final SearchConfig baseline = new SearchConfig.Builder(SearchConfig.DEFAULT)
+                .setLateMoveReductions(false)
+                .setFutilityPruning(false)
+                .setRazoring(false)
+                .build();
+        final String[] names = {"late move reductions", "futility pruning", "razoring", "all three"};
+        final SearchConfig[] configs = {
+                new SearchConfig.Builder(baseline).setLateMoveReductions(true).build(),
+                new SearchConfig.Builder(baseline).setFutilityPruning(true).build(),
+                new SearchConfig.Builder(baseline).setRazoring(true).build(),
+                SearchConfig.DEFAULT
+        };
+        final long[] nodes = new long[configs.length];
+        final int[] sameMoves = new int[configs.length];
+        long baselineNodes = 0;
+        for(final String fen : BENCHMARK_POSITIONS){
+            final Board board = FenUtilities.createGameFromFEN(fen);
+            final AlphaBeta baselineSearcher = new AlphaBeta(depth, null, baseline);
+            final Move baselineMove = baselineSearcher.execute(board);
+            baselineNodes += baselineSearcher.getNodesSearched();
+            for(int i = 0; i < configs.length; i++){
+                final AlphaBeta searcher = new AlphaBeta(depth, null, configs[i]);
+                if(baselineMove.equals(searcher.execute(board))){
+                    sameMoves[i]++;
+                }
+                nodes[i] += searcher.getNodesSearched();
+            }
+        }
+        final StringBuilder report = new StringBuilder();
+        report.append(String.format("depth %d, %d positions, baseline %d nodes%n",
+                                    depth, BENCHMARK_POSITIONS.length, baselineNodes));
+        for(int i = 0; i < configs.length; i++){
+            report.append(String.format("%-22s %10d nodes  saved %5.1f%%  same move %d/%d%n",
+                                        names[i], nodes[i], 100.0 * (baselineNodes - nodes[i]) / baselineNodes,
+                                        sameMoves[i], BENCHMARK_POSITIONS.length));
+        }
+        System.out.print(report);
+    }
+
+    /*
+    The root drivers side by side at the same depth: nodes, wall time and how often each picks the move
+    iterative deepening picks. Every driver gets a fresh table of the same size for every position, so
+    none of them profits from what another one stored.
+    */
+    public static void reportDriverComparison(final int depth, final int threads){
+        final SearchLimits searchLimits = new SearchLimits.Builder().setMaxDepth(depth).build();
+        final String[] names = {"IterativeDeepening", "MTDf", "LazySMP " + threads + " threads"};
+        final List<Supplier<SearchDriver>> drivers = Arrays.asList(
+                () -> new IterativeDeepening(searchLimits, new TranspositionTable(COMPARISON_TABLE_SIZE)),
+                () -> new MTDf(searchLimits, new TranspositionTable(COMPARISON_TABLE_SIZE)),
+                () -> new LazySMP(searchLimits, threads, new TranspositionTable(COMPARISON_TABLE_SIZE)));
+        final long[] nodes = new long[drivers.size()];
+        final long[] times = new long[drivers.size()];
+        final int[] sameMoves = new int[drivers.size()];
+        for(final String fen : BENCHMARK_POSITIONS){
+            final Board board = FenUtilities.createGameFromFEN(fen);
+            Move referenceMove = null;
+            for(int i = 0; i < drivers.size(); i++){
+                final SearchDriver driver = drivers.get(i).get();
+                final long startTime = System.nanoTime();
+                final SearchResult searchResult = driver.search(board);
+                times[i] += System.nanoTime() - startTime;
+                nodes[i] += searchResult.getStatistics().getTotals().getNodes();
+                if(i == 0){
+                    referenceMove = searchResult.getBestMove();
+                }
+                if(searchResult.getBestMove().equals(referenceMove)){
+                    sameMoves[i]++;
+                }
+            }
+        }
+        int fastest = 0;
+        final StringBuilder report = new StringBuilder();
+        report.append(String.format("depth %d, %d positions%n", depth, BENCHMARK_POSITIONS.length));
+        for(int i = 0; i < drivers.size(); i++){
+            report.append(String.format("%-22s %10d nodes  %6d ms  same move %d/%d%n",
+                                        names[i], nodes[i], times[i] / 1000000, sameMoves[i],
+                                        BENCHMARK_POSITIONS.length));
+            if(times[i] < times[fastest]){
+                fastest = i;
+            }
+        }
+        report.append("fastest: ").append(names[fastest]).append(String.format("%n"));
+        System.out.print(report);
+    }
+
+    //serial AlphaBeta against ParallelAlphaBeta at the same depth, both must pick the same move.
+    public static void reportParallelSpeedup(final int depth, final ForkJoinPool pool){
+        long totalSerialTime = 0;
+        long totalParallelTime = 0;
+        final StringBuilder report = new StringBuilder();
+        for(final String fen : BENCHMARK_POSITIONS){
+            final Board board = FenUtilities.createGameFromFEN(fen);
+
+            long startTime = System.nanoTime();
+            final Move serialMove = new AlphaBeta(depth).execute(board);
+            final long serialTime = System.nanoTime() - startTime;
+
+            startTime = System.nanoTime();
+            final Move parallelMove = new ParallelAlphaBeta(depth, pool).execute(board);
+            final long parallelTime = System.nanoTime() - startTime;
+
+            totalSerialTime += serialTime;
+            totalParallelTime += parallelTime;
+            report.append(String.format("%-70s serial %6d ms  parallel %6d ms  speedup %5.2f  %s%n",
+                                        fen, serialTime / 1000000, parallelTime / 1000000,
+                                        (double) serialTime / parallelTime,
+                                        serialMove.equals(parallelMove) ? "same move" : "DIFFERENT MOVE"));
+        }
+        report.append(String.format("depth %d, %d threads: total speedup %.2f%n",
+                                    depth, pool.getParallelism(), (double) totalSerialTime / totalParallelTime));
+        System.out.print(report);
+    }
+
+    /*
+    A ponder hit after pondering for ponderMillis: the control has been running that long when the time
+    limit is set, as it has in the GUI, and the search must still go past its first iteration in the
+    time it gets. Returns whether it did.
+    */
+    public static boolean checkPonderHit(final long ponderMillis, final long hitMillis){
+        final SearchControl searchControl = new SearchControl();
+        try {
+            Thread.sleep(ponderMillis);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        searchControl.setTimeLimit(hitMillis);
+        final SearchLimits searchLimits = new SearchLimits.Builder().setMaxDepth(SearchLimits.MAX_DEPTH).build();
+        final SearchResult searchResult = new IterativeDeepening(searchLimits)
+                .search(FenUtilities.createGameFromFEN(FenUtilities.STANDARD_BOARD_FEN), searchControl);
+        final boolean deeper = searchResult != null && searchResult.getDepth() > 1;
+        System.out.printf("ponder hit after %d ms with %d ms to go: depth %d, %s%n", ponderMillis, hitMillis,
+                          searchResult != null ? searchResult.getDepth() : 0, deeper ? "ok" : "FAILED");
+        return deeper;
+    }
+}
@@ -0,0 +1,171 @@
+package com.chess.engine.player.ai;
+
+//which refinements AlphaBeta adds on top of plain alpha-beta, each one can be switched on its own.
+public final class SearchConfig {
+
+    //nothing switched on, AlphaBeta then picks the same move as MinMax at equal depth.
+    public static final SearchConfig PLAIN = new Builder().build();
+    //everything switched on, what the iterative deepening drivers use unless told otherwise.
+    public static final SearchConfig DEFAULT = new Builder()
+            .setQuiescence(true)
+            .setNullMoveReduction(2)
+            .setPrincipalVariationSearch(true)
+            .setAspirationWindow(50)
+            .setLateMoveReductions(true)
+            .setFutilityPruning(true)
+            .setRazoring(true)
+            .build();
+
+    private final boolean quiescence;
+    private final int nullMoveReduction;
+    private final boolean principalVariationSearch;
+    private final int aspirationWindow;
+    private final boolean lateMoveReductions;
+    private final boolean futilityPruning;
+    private final boolean razoring;
+    private final EndgameTablebase tablebase;
+
+    private SearchConfig(final Builder builder){
+        this.quiescence = builder.quiescence;
+        this.nullMoveReduction = builder.nullMoveReduction;
+        this.principalVariationSearch = builder.principalVariationSearch;
+        this.aspirationWindow = builder.aspirationWindow;
+        this.lateMoveReductions = builder.lateMoveReductions;
+        this.futilityPruning = builder.futilityPruning;
+        this.razoring = builder.razoring;
+        this.tablebase = builder.tablebase;
+    }
+
+    //keep searching captures past the last ply until the position is quiet.
+    public boolean useQuiescence(){
+        return this.quiescence;
+    }
+
+    //how many plies shallower than normal the null move is searched, zero switches null-move pruning off.
+    public int getNullMoveReduction(){
+        return this.nullMoveReduction;
+    }
+
+    public boolean useNullMovePruning(){
+        return this.nullMoveReduction > 0;
+    }
+
+    //search every move after the first with a null window, and only search again the ones that beat it.
+    public boolean usePrincipalVariationSearch(){
+        return this.principalVariationSearch;
+    }
+
+    //half the width of the first window around the previous iteration's score, zero searches full windows.
+    public int getAspirationWindow(){
+        return this.aspirationWindow;
+    }
+
+    public boolean useAspirationWindows(){
+        return this.aspirationWindow > 0;
+    }
+
+    //search quiet moves late in the ordered list less deep, and again at full depth if one beats alpha.
+    public boolean useLateMoveReductions(){
+        return this.lateMoveReductions;
+    }
+
+    //near the leaves, skip quiet moves that cannot bring a position far below alpha back up to it.
+    public boolean useFutilityPruning(){
+        return this.futilityPruning;
+    }
+
+    //near the leaves, drop straight into quiescence when the position is far below alpha.
+    public boolean useRazoring(){
+        return this.razoring;
+    }
+
+    //the endgame tables every node with few enough pieces is looked up in, null for none.
+    public EndgameTablebase getTablebase(){
+        return this.tablebase;
+    }
+
+    @Override
+    public String toString(){
+        return "quiescence = " + this.quiescence + ", null move R = " + this.nullMoveReduction +
+               ", pvs = " + this.principalVariationSearch + ", aspiration window = " + this.aspirationWindow +
+               ", lmr = " + this.lateMoveReductions + ", futility = " + this.futilityPruning +
+               ", razoring = " + this.razoring +
+               ", tablebases = " + (this.tablebase != null ? this.tablebase.getTableCount() : 0);
+    }
+
+    public static class Builder{
+
+        boolean quiescence;
+        int nullMoveReduction;
+        boolean principalVariationSearch;
+        int aspirationWindow;
+        boolean lateMoveReductions;
+        boolean futilityPruning;
+        boolean razoring;
+        EndgameTablebase tablebase;
+
+        public Builder(){
+        }
+
+        public Builder(final SearchConfig searchConfig){
+            this.quiescence = searchConfig.quiescence;
+            this.nullMoveReduction = searchConfig.nullMoveReduction;
+            this.principalVariationSearch = searchConfig.principalVariationSearch;
+            this.aspirationWindow = searchConfig.aspirationWindow;
+            this.lateMoveReductions = searchConfig.lateMoveReductions;
+            this.futilityPruning = searchConfig.futilityPruning;
+            this.razoring = searchConfig.razoring;
+            this.tablebase = searchConfig.tablebase;
+        }
+
+        public Builder setQuiescence(final boolean quiescence){
+            this.quiescence = quiescence;
+            return this;
+        }
+
+        public Builder setNullMoveReduction(final int nullMoveReduction){
+            if(nullMoveReduction < 0){
+                throw new IllegalArgumentException("Null move reduction cannot be negative");
+            }
+            this.nullMoveReduction = nullMoveReduction;
+            return this;
+        }
+
+        public Builder setPrincipalVariationSearch(final boolean principalVariationSearch){
+            this.principalVariationSearch = principalVariationSearch;
+            return this;
+        }
+
+        public Builder setAspirationWindow(final int aspirationWindow){
+            if(aspirationWindow < 0){
+                throw new IllegalArgumentException("Aspiration window cannot be negative");
+            }
+            this.aspirationWindow = aspirationWindow;
+            return this;
+        }
+
+        public Builder setLateMoveReductions(final boolean lateMoveReductions){
+            this.lateMoveReductions = lateMoveReductions;
+            return this;
+        }
+
+        public Builder setFutilityPruning(final boolean futilityPruning){
+            this.futilityPruning = futilityPruning;
+            return this;
+        }
+
+        public Builder setRazoring(final boolean razoring){
+            this.razoring = razoring;
+            return this;
+        }
+
+        public Builder setTablebase(final EndgameTablebase tablebase){
+            this.tablebase = tablebase;
+            return this;
+        }
+
+        public SearchConfig build(){
+            return new SearchConfig(this);
+        }
+    }
+}
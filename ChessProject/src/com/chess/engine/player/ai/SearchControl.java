@@ -0,0 +1,96 @@
+package com.chess.engine.player.ai;
+
+/*
+The handle a front-end keeps on a running search. Any thread may stop it or move its deadline at any
+time, the search looks at this object every thousand nodes or so and then returns the move of the last
+iteration it finished. A search stopped during its first iteration plays the first root move it tried.
+
+One control belongs to one search, make a new one for the next move.
+*/
+public final class SearchControl {
+
+    private final long startTime;
+    //where the time the iterations have spent is counted from, the start unless the time limit was moved.
+    private volatile long budgetStart;
+    private volatile boolean stopRequested;
+    //zero means unlimited.
+    private volatile long deadline;
+    private volatile long nodeLimit;
+
+    public SearchControl() {
+        this.startTime = System.currentTimeMillis();
+        this.budgetStart = this.startTime;
+    }
+
+    //a control that enforces the time and node budget of the limits, counted from now.
+    public static SearchControl of(final SearchLimits searchLimits) {
+        final SearchControl searchControl = new SearchControl();
+        if(searchLimits.hasTimeLimit()){
+            searchControl.deadline = searchControl.startTime + searchLimits.getMaxMillis();
+        }
+        searchControl.nodeLimit = searchLimits.getMaxNodes();
+        return searchControl;
+    }
+
+    public void stop(){
+        this.stopRequested = true;
+    }
+
+    public boolean isStopRequested(){
+        return this.stopRequested;
+    }
+
+    /*
+    From now on the search has this many more milliseconds, zero takes the time limit away. The time
+    spent so far does not count against the new limit: after a ponder hit the search gets its whole time
+    per move, however long it pondered.
+    */
+    public void setTimeLimit(final long millis){
+        final long now = System.currentTimeMillis();
+        this.budgetStart = now;
+        this.deadline = millis > 0 ? now + millis : 0;
+    }
+
+    public void setNodeLimit(final long nodeLimit){
+        this.nodeLimit = nodeLimit;
+    }
+
+    //false when only stop() ends the search.
+    public boolean hasLimits(){
+        return this.deadline > 0 || this.nodeLimit > 0;
+    }
+
+    public long getElapsedMillis(){
+        return System.currentTimeMillis() - this.startTime;
+    }
+
+    //what the search polls inside the tree, cheap unless there is a deadline to compare the clock with.
+    boolean isOutOfLimits(final long nodesSearched){
+        if(this.stopRequested){
+            return true;
+        }
+        final long nodeLimit = this.nodeLimit;
+        if(nodeLimit > 0 && nodesSearched >= nodeLimit){
+            return true;
+        }
+        final long deadline = this.deadline;
+        return deadline > 0 && System.currentTimeMillis() >= deadline;
+    }
+
+    /*
+    What a driver asks between two iterations. The next iteration costs more than all the previous ones
+    together, so when less time is left than has been spent, it would only be thrown away. Spent means
+    since the time limit was last set.
+    */
+    boolean canStartIteration(final long nodesSearched){
+        if(isOutOfLimits(nodesSearched)){
+            return false;
+        }
+        final long deadline = this.deadline;
+        if(deadline == 0){
+            return true;
+        }
+        final long now = System.currentTimeMillis();
+        return now + (now - this.budgetStart) < deadline;
+    }
+}
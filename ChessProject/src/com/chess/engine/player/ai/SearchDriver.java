@@ -0,0 +1,12 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+
+//a strategy that can tell more than its move: the score, the depth it reached and the line it expects.
+public interface SearchDriver extends MoveStrategy {
+    //searches within the limits the driver was built with.
+    SearchResult search(Board board);
+
+    //the caller keeps the control to stop the search or change its limits while it runs.
+    SearchResult search(Board board, SearchControl searchControl);
+}
@@ -0,0 +1,78 @@
+package com.chess.engine.player.ai;
+
+//how much a search may spend on one move, zero means there is no limit of that kind.
+public final class SearchLimits {
+
+    //deepest iteration we ever start, the spinner in the game setup is capped to this.
+    public static final int MAX_DEPTH = 64;
+
+    private final int maxDepth;
+    private final long maxMillis;
+    private final long maxNodes;
+
+    private SearchLimits(final Builder builder){
+        this.maxDepth = builder.maxDepth;
+        this.maxMillis = builder.maxMillis;
+        this.maxNodes = builder.maxNodes;
+    }
+
+    public int getMaxDepth(){
+        return this.maxDepth;
+    }
+
+    public long getMaxMillis(){
+        return this.maxMillis;
+    }
+
+    public long getMaxNodes(){
+        return this.maxNodes;
+    }
+
+    public boolean hasTimeLimit(){
+        return this.maxMillis > 0;
+    }
+
+    public boolean hasNodeLimit(){
+        return this.maxNodes > 0;
+    }
+
+    @Override
+    public String toString(){
+        return "depth = " + this.maxDepth +
+               (hasTimeLimit() ? ", " + this.maxMillis + " ms" : "") +
+               (hasNodeLimit() ? ", " + this.maxNodes + " nodes" : "");
+    }
+
+    public static class Builder{
+
+        int maxDepth;
+        long maxMillis;
+        long maxNodes;
+
+        public Builder(){
+            this.maxDepth = MAX_DEPTH;
+        }
+
+        public Builder setMaxDepth(final int maxDepth){
+            if(maxDepth < 1 || maxDepth > MAX_DEPTH){
+                throw new IllegalArgumentException("Search depth must be between 1 and " + MAX_DEPTH);
+            }
+            this.maxDepth = maxDepth;
+            return this;
+        }
+
+        public Builder setMaxMillis(final long maxMillis){
+            this.maxMillis = Math.max(0, maxMillis);
+            return this;
+        }
+
+        public Builder setMaxNodes(final long maxNodes){
+            this.maxNodes = Math.max(0, maxNodes);
+            return this;
+        }
+
+        public SearchLimits build(){
+            return new SearchLimits(this);
+        }
+    }
+}
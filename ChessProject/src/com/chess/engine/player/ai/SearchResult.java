@@ -0,0 +1,83 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Move;
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+/*
+What a search found: the move to play, its score from the side to move, the depth of the last finished
+iteration, and the principal variation, the line both sides are expected to play from here. The first
+move of the principal variation is the best move. The line can be shorter than the depth when part of
+it came out of the transposition table.
+*/
+public final class SearchResult {
+
+    private final Move bestMove;
+    private final int score;
+    private final int depth;
+    private final List<Move> principalVariation;
+    //null for a move that took no search, from the book or the tablebases.
+    private final SearchStatistics statistics;
+
+    public SearchResult(final Move bestMove,
+                        final int score,
+                        final int depth,
+                        final List<Move> principalVariation) {
+        this(bestMove, score, depth, principalVariation, null);
+    }
+
+    public SearchResult(final Move bestMove,
+                        final int score,
+                        final int depth,
+                        final List<Move> principalVariation,
+                        final SearchStatistics statistics) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.principalVariation = ImmutableList.copyOf(principalVariation);
+        this.statistics = statistics;
+    }
+
+    //the same result with the statistics of the whole search, what a driver returns at the end.
+    public SearchResult withStatistics(final SearchStatistics statistics){
+        return new SearchResult(this.bestMove, this.score, this.depth, this.principalVariation, statistics);
+    }
+
+    public Move getBestMove(){
+        return this.bestMove;
+    }
+
+    public int getScore(){
+        return this.score;
+    }
+
+    public int getDepth(){
+        return this.depth;
+    }
+
+    public SearchStatistics getStatistics(){
+        return this.statistics;
+    }
+
+    public List<Move> getPrincipalVariation(){
+        return this.principalVariation;
+    }
+
+    //the expected line as the move log would print it, "d3 d6 Nc3".
+    public String getPrincipalVariationText(){
+        final StringBuilder builder = new StringBuilder();
+        for(final Move move : this.principalVariation){
+            if(builder.length() > 0){
+                builder.append(' ');
+            }
+            builder.append(move);
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public String toString(){
+        return "depth " + this.depth + ": " + this.bestMove + " (" + this.score + ") pv " + getPrincipalVariationText();
+    }
+}
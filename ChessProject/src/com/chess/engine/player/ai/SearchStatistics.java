@@ -0,0 +1,246 @@
+package com.chess.engine.player.ai;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/*
+What a search did, for tuning and for knowing what a time control buys. The searchers count in plain
+fields of their own, no locks and no shared counters on the hot path, and the driver collects:
+
+    - one Counts per finished iteration, taken from the searcher that decides the move (with Lazy SMP
+      the main thread), so the growth from one depth to the next can be read off
+    - the sum of what every searcher counted, aborted iteration and helper threads included, for the
+      totals and the speed
+
+toString() gives one line of key=value pairs, toJson() one JSON object, for logs a script can read.
+*/
+public final class SearchStatistics {
+
+    private final ImmutableList<Counts> iterations;
+    private final Counts totals;
+    private final long elapsedMillis;
+    private final int threadCount;
+
+    private SearchStatistics(final Builder builder){
+        this.iterations = ImmutableList.copyOf(builder.iterations);
+        this.totals = builder.totals;
+        this.elapsedMillis = builder.elapsedMillis;
+        this.threadCount = builder.threadCount;
+    }
+
+    //one row per finished iteration, counted from the start of the search.
+    public List<Counts> getIterations(){
+        return this.iterations;
+    }
+
+    //everything every thread counted.
+    public Counts getTotals(){
+        return this.totals;
+    }
+
+    public long getElapsedMillis(){
+        return this.elapsedMillis;
+    }
+
+    public int getThreadCount(){
+        return this.threadCount;
+    }
+
+    public long getNodesPerSecond(){
+        return this.totals.nodes * 1000 / Math.max(1, this.elapsedMillis);
+    }
+
+    //nodes of the iteration over nodes of the one before, 0 for the first.
+    public double getEffectiveBranchingFactor(final int iteration){
+        if(iteration == 0){
+            return 0;
+        }
+        final long previousNodes = nodesOfIteration(iteration - 1);
+        return previousNodes == 0 ? 0 : (double) nodesOfIteration(iteration) / previousNodes;
+    }
+
+    //the average of the above over the search, a geometric mean like the growth it measures.
+    public double getEffectiveBranchingFactor(){
+        final int last = this.iterations.size() - 1;
+        if(last < 1 || nodesOfIteration(0) == 0){
+            return 0;
+        }
+        return Math.pow((double) nodesOfIteration(last) / nodesOfIteration(0), 1.0 / last);
+    }
+
+    private long nodesOfIteration(final int iteration){
+        final long previousNodes = iteration > 0 ? this.iterations.get(iteration - 1).nodes : 0;
+        return this.iterations.get(iteration).nodes - previousNodes;
+    }
+
+    @Override
+    public String toString(){
+        final int depth = this.iterations.isEmpty() ? 0 : this.iterations.get(this.iterations.size() - 1).depth;
+        return String.format(Locale.ROOT,
+                "depth=%d ms=%d threads=%d nodes=%d qnodes=%d nps=%d cutoff_rate=%.3f first_move_cutoff_rate=%.3f " +
+                "tt_probes=%d tt_hits=%d tt_hit_rate=%.3f ebf=%.2f",
+                depth, this.elapsedMillis, this.threadCount, this.totals.nodes, this.totals.quiescenceNodes,
+                getNodesPerSecond(), this.totals.getCutoffRate(), this.totals.getFirstMoveCutoffRate(),
+                this.totals.hashProbes, this.totals.hashHits, this.totals.getHashHitRate(),
+                getEffectiveBranchingFactor());
+    }
+
+    public String toJson(){
+        final StringBuilder builder = new StringBuilder();
+        builder.append(String.format(Locale.ROOT, "{\"ms\":%d,\"threads\":%d,\"nps\":%d,\"ebf\":%.3f,\"totals\":",
+                                     this.elapsedMillis, this.threadCount, getNodesPerSecond(),
+                                     getEffectiveBranchingFactor()));
+        this.totals.appendJson(builder);
+        builder.append(",\"iterations\":[");
+        for(int i = 0; i < this.iterations.size(); i++){
+            if(i > 0){
+                builder.append(',');
+            }
+            final Counts iteration = this.iterations.get(i);
+            builder.append(String.format(Locale.ROOT, "{\"depth\":%d,\"ms\":%d,\"ebf\":%.3f,\"counts\":",
+                                         iteration.depth, iteration.elapsedMillis, getEffectiveBranchingFactor(i)));
+            iteration.appendJson(builder);
+            builder.append('}');
+        }
+        return builder.append("]}").toString();
+    }
+
+    /*
+    The counters of a searcher at one moment. Interior nodes are the nodes that got as far as trying
+    moves, a cutoff is one of them stopping early at beta, and a first move cutoff is one where the
+    first move was already enough: the closer to the cutoffs, the better the move ordering.
+    */
+    public static final class Counts {
+        private final int depth;
+        private final long elapsedMillis;
+        private final long nodes;
+        private final long quiescenceNodes;
+        private final long interiorNodes;
+        private final long betaCutoffs;
+        private final long firstMoveCutoffs;
+        private final long hashProbes;
+        private final long hashHits;
+
+        Counts(final int depth,
+               final long elapsedMillis,
+               final long nodes,
+               final long quiescenceNodes,
+               final long interiorNodes,
+               final long betaCutoffs,
+               final long firstMoveCutoffs,
+               final long hashProbes,
+               final long hashHits) {
+            this.depth = depth;
+            this.elapsedMillis = elapsedMillis;
+            this.nodes = nodes;
+            this.quiescenceNodes = quiescenceNodes;
+            this.interiorNodes = interiorNodes;
+            this.betaCutoffs = betaCutoffs;
+            this.firstMoveCutoffs = firstMoveCutoffs;
+            this.hashProbes = hashProbes;
+            this.hashHits = hashHits;
+        }
+
+        //the counts of two threads together, at the deeper depth of the two.
+        Counts plus(final Counts other){
+            return new Counts(Math.max(this.depth, other.depth), Math.max(this.elapsedMillis, other.elapsedMillis),
+                              this.nodes + other.nodes, this.quiescenceNodes + other.quiescenceNodes,
+                              this.interiorNodes + other.interiorNodes, this.betaCutoffs + other.betaCutoffs,
+                              this.firstMoveCutoffs + other.firstMoveCutoffs, this.hashProbes + other.hashProbes,
+                              this.hashHits + other.hashHits);
+        }
+
+        public int getDepth(){
+            return this.depth;
+        }
+
+        public long getElapsedMillis(){
+            return this.elapsedMillis;
+        }
+
+        //every node, quiescence nodes included.
+        public long getNodes(){
+            return this.nodes;
+        }
+
+        public long getQuiescenceNodes(){
+            return this.quiescenceNodes;
+        }
+
+        public long getInteriorNodes(){
+            return this.interiorNodes;
+        }
+
+        public long getBetaCutoffs(){
+            return this.betaCutoffs;
+        }
+
+        public long getFirstMoveCutoffs(){
+            return this.firstMoveCutoffs;
+        }
+
+        public long getHashProbes(){
+            return this.hashProbes;
+        }
+
+        public long getHashHits(){
+            return this.hashHits;
+        }
+
+        public double getCutoffRate(){
+            return this.interiorNodes == 0 ? 0 : (double) this.betaCutoffs / this.interiorNodes;
+        }
+
+        public double getFirstMoveCutoffRate(){
+            return this.betaCutoffs == 0 ? 0 : (double) this.firstMoveCutoffs / this.betaCutoffs;
+        }
+
+        public double getHashHitRate(){
+            return this.hashProbes == 0 ? 0 : (double) this.hashHits / this.hashProbes;
+        }
+
+        private void appendJson(final StringBuilder builder){
+            builder.append(String.format(Locale.ROOT,
+                    "{\"nodes\":%d,\"qnodes\":%d,\"interior_nodes\":%d,\"cutoffs\":%d,\"first_move_cutoffs\":%d," +
+                    "\"tt_probes\":%d,\"tt_hits\":%d}",
+                    this.nodes, this.quiescenceNodes, this.interiorNodes, this.betaCutoffs, this.firstMoveCutoffs,
+                    this.hashProbes, this.hashHits));
+        }
+    }
+
+    public static class Builder {
+
+        final List<Counts> iterations = new ArrayList<>();
+        Counts totals = new Counts(0, 0, 0, 0, 0, 0, 0, 0, 0);
+        long elapsedMillis;
+        int threadCount = 1;
+
+        public Builder addIteration(final Counts counts){
+            this.iterations.add(counts);
+            return this;
+        }
+
+        //what one searcher counted over the whole search.
+        public Builder addSearcher(final Counts counts){
+            this.totals = this.totals.plus(counts);
+            return this;
+        }
+
+        public Builder setElapsedMillis(final long elapsedMillis){
+            this.elapsedMillis = elapsedMillis;
+            return this;
+        }
+
+        public Builder setThreadCount(final int threadCount){
+            this.threadCount = threadCount;
+            return this;
+        }
+
+        public SearchStatistics build(){
+            return new SearchStatistics(this);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.chess.engine.player.ai;
 
+import com.chess.engine.Alliance;
 import com.chess.engine.board.Board;
+import com.chess.engine.board.SearchBoard;
 import com.chess.engine.pieces.Piece;
 import com.chess.engine.player.Player;
 
@@ -11,6 +13,11 @@ public final class StandardBoardEvaluator implements BoardEvaluator {
     private static final int CHECK_MATE_BONUS = 10000;
     private static final int DEPTH_BONUS = 100;
     private static final int CASTLE_BONUS = 60;
+    //more than the mobility either side can win or lose in one quiet move.
+    private static final int MOBILITY_SWING = 100;
+    //how far a quiet move can move this evaluation: a check, castling and the mobility it changes.
+    private static final int QUIET_MOVE_MARGIN = CHECK_BONUS + CASTLE_BONUS + MOBILITY_SWING;
+    private static final Piece.PieceType[] PIECE_TYPES = Piece.PieceType.values();
 
     @Override
     public int evaluate(final Board board, final int depth) {
@@ -20,6 +27,30 @@ public final class StandardBoardEvaluator implements BoardEvaluator {
                 scorePlayer(board.blackPlayer() , depth);
     }
 
+    /*
+    The same terms counted on the bitboards. Only the side to move can be in check on a board a search
+    reaches, so only it can be mated, and no player ever counts as castled.
+    */
+    @Override
+    public int evaluate(final SearchBoard board, final int depth) {
+        return scoreAlliance(board, Alliance.WHITE, Alliance.BLACK, depth) -
+               scoreAlliance(board, Alliance.BLACK, Alliance.WHITE, depth);
+    }
+
+    /*
+    How much the search may expect the score to rise with depth plies of quiet moves left. A position
+    that is still below alpha with this much added is not worth searching quietly (futility pruning).
+    These margins follow the terms of evaluate(), a new term has to be accounted for here as well.
+    */
+    public static int futilityMargin(final int depth){
+        return QUIET_MOVE_MARGIN * depth;
+    }
+
+    //razoring gives up on a whole node, not on single moves, so it asks for an extra pawn on top.
+    public static int razoringMargin(final int depth){
+        return futilityMargin(depth) + Piece.PieceType.PAWN.getPieceValue();
+    }
+
     private int scorePlayer(final Player player, final int depth) {
         return pieceValue(player) +
                mobility(player) +
@@ -28,6 +59,23 @@ public final class StandardBoardEvaluator implements BoardEvaluator {
                castled(player);
     }
 
+    private static int scoreAlliance(final SearchBoard board,
+                                     final Alliance alliance,
+                                     final Alliance opponent,
+                                     final int depth) {
+        int score = board.countMoves(alliance);
+        for(final Piece.PieceType pieceType : PIECE_TYPES){
+            score += Long.bitCount(board.getPieceBitBoard(pieceType, alliance)) * pieceType.getPieceValue();
+        }
+        if(board.isInCheck(opponent)){
+            score += CHECK_BONUS;
+            if(board.getSideToMove() == opponent && !board.hasLegalMove()){
+                score += CHECK_MATE_BONUS * depthBonus(depth);
+            }
+        }
+        return score;
+    }
+
     private static int castled(Player player) {
         return player.isCastled() ? CASTLE_BONUS : 0;
     }
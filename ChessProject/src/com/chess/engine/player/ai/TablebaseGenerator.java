@@ -0,0 +1,560 @@
+package com.chess.engine.player.ai;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+/*
+Builds the distance-to-mate tables EndgameTablebase reads, by retrograde analysis, on this machine:
+
+    java com.chess.engine.player.ai.TablebaseGenerator directory [KQvK KRvK ...]
+
+Without table names it builds every pawnless ending of three and four pieces, smaller ones first: a
+capture leaves the table for a smaller one, which has to be on disk already.
+
+For one table:
+
+    1. every placement is looked at once for each side to move. Illegal ones, where the side that just
+       moved stands in check, are marked. For the others we count the moves that stay in the table, and
+       look up where the captures lead in the smaller tables.
+    2. a position with no move is mated (0 plies) or stalemate. Then, one ply at a time: a position is
+       won in n plies when a move leads to a position lost in n-1, and lost in n plies when every move
+       leads to a position won in at most n-1. We do not search forwards for that: from each position
+       resolved at ply n-1 we take its moves back (an un-move is a move, pieces go back the way they
+       came), which gives every position that can reach it. Those become wins, or lose one of the
+       moves they have left, and when none is left they are lost.
+    3. whatever is never resolved is a draw.
+
+The moves are this engine's: no pawns and no castling in these endings, the pieces move like their
+classes in com.chess.engine.pieces, and a move that leaves the own king attacked is illegal.
+
+Each entry is one byte, the distance in plies plus one, 0 for a draw. An odd distance is a win for the
+side to move, an even one a loss, 1 is mated. Distances past 254 plies would not fit and are left as
+draws, no table here comes anywhere near that.
+*/
+public final class TablebaseGenerator {
+
+    //every pawnless ending of up to four pieces, no table before one it captures into.
+    private static final String[] ALL_TABLES = {
+            "KQvK", "KRvK", "KBvK", "KNvK",
+            "KQQvK", "KQRvK", "KQBvK", "KQNvK", "KRRvK", "KRBvK", "KRNvK", "KBBvK", "KBNvK", "KNNvK",
+            "KQvKQ", "KQvKR", "KQvKB", "KQvKN", "KRvKR", "KRvKB", "KRvKN", "KBvKB", "KBvKN", "KNvKN"
+    };
+
+    private static final int MAX_PLIES = 254;
+    private static final byte ILLEGAL = -1;
+    //more than any position in these tables has moves that stay in the table.
+    private static final int MAX_SUCCESSORS = 128;
+
+    private static final int[][] ROOK_DIRECTIONS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+    private static final int[][] KNIGHT_JUMPS = {{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2},
+                                                 {1, -2}, {1, 2}, {2, -1}, {2, 1}};
+
+    //RAYS[tile][direction]: the tiles a slider passes going one way, nearest first, rook directions first.
+    private static final int[][][] RAYS = initRays();
+    private static final int[][] KING_STEPS = initSteps(join(ROOK_DIRECTIONS, BISHOP_DIRECTIONS));
+    private static final int[][] KNIGHT_STEPS = initSteps(KNIGHT_JUMPS);
+    //what pathsOf() hands out, built once.
+    private static final int[][][] ROOK_PATHS = initSliderPaths(0, 4);
+    private static final int[][][] BISHOP_PATHS = initSliderPaths(4, 8);
+    private static final int[][][] KING_PATHS = initPaths(KING_STEPS);
+    private static final int[][][] KNIGHT_PATHS = initPaths(KNIGHT_STEPS);
+    private static final long[] KING_ATTACKS = initAttacks(KING_STEPS);
+    private static final long[] KNIGHT_ATTACKS = initAttacks(KNIGHT_STEPS);
+    //BETWEEN[a][b]: the tiles strictly between two tiles on one line, what has to be empty for a slider.
+    private static final long[][] BETWEEN = new long[64][64];
+    private static final boolean[][] ROOK_LINE = new boolean[64][64];
+    private static final boolean[][] BISHOP_LINE = new boolean[64][64];
+
+    static {
+        for(int tile = 0; tile < 64; tile++){
+            for(int direction = 0; direction < 8; direction++){
+                long between = 0;
+                for(final int target : RAYS[tile][direction]){
+                    BETWEEN[tile][target] = between;
+                    if(direction < 4){
+                        ROOK_LINE[tile][target] = true;
+                    } else {
+                        BISHOP_LINE[tile][target] = true;
+                    }
+                    between |= 1L << target;
+                }
+            }
+        }
+    }
+
+    private final File directory;
+
+    public TablebaseGenerator(final File directory) {
+        this.directory = directory;
+    }
+
+    public static void main(final String[] args) throws IOException {
+        if(args.length < 1){
+            System.out.println("usage: TablebaseGenerator directory [KQvK KRvK ...]");
+            return;
+        }
+        final File directory = new File(args[0]);
+        if(!directory.isDirectory() && !directory.mkdirs()){
+            throw new IOException("Cannot create " + directory);
+        }
+        final TablebaseGenerator generator = new TablebaseGenerator(directory);
+        final String[] tables = args.length > 1 ? Arrays.copyOfRange(args, 1, args.length) : ALL_TABLES;
+        for(final String table : tables){
+            generator.generate(table);
+        }
+    }
+
+    //builds one table into the directory, the tables its captures lead to must be there already.
+    public void generate(final String name) throws IOException {
+        final long startTime = System.currentTimeMillis();
+        final TableBuilder tableBuilder = new TableBuilder(EndgameMaterial.of(name));
+        tableBuilder.initialize();
+        final int levels = tableBuilder.resolve();
+        final File file = EndgameTablebase.fileOf(this.directory, name);
+        try(final OutputStream output = new BufferedOutputStream(new FileOutputStream(file), 1 << 16)){
+            output.write(tableBuilder.values[EndgameMaterial.SIDE_A]);
+            output.write(tableBuilder.values[EndgameMaterial.SIDE_B]);
+        }
+        System.out.println(name + ": " + tableBuilder.summary() + ", " + levels + " plies resolved in " +
+                           (System.currentTimeMillis() - startTime) + " ms");
+    }
+
+    //the working arrays of one table, one entry per slot and side to move.
+    private final class TableBuilder {
+        private final EndgameMaterial material;
+        private final int pieceCount;
+        private final int slots;
+        private final byte[][] values;
+        //moves within the table not yet known to lose, plus one if a capture draws.
+        private final byte[][] moveCounts;
+        //the quickest win and the slowest loss the captures of a position lead to, in plies, 0 for none.
+        private final byte[][] captureWins;
+        private final byte[][] captureLosses;
+        //what capturing piece j leads to, null when only the kings are left.
+        private final EndgameMaterial[] captureMaterials;
+        private final byte[][] captureTables;
+        private final int[][] captureSlotPieces;
+        private final boolean[] captureSwapsSides;
+        private final int[] kings = new int[2];
+        private int longestCapture;
+
+        private final int[] squares;
+        private final int[] captureSquares;
+        private final int[] scratch = new int[EndgameMaterial.MAX_PIECES];
+        private final int[] successors = new int[MAX_SUCCESSORS];
+
+        TableBuilder(final EndgameMaterial material) throws IOException {
+            this.material = material;
+            this.pieceCount = material.getPieceCount();
+            this.slots = material.getSlotsPerSide();
+            this.values = new byte[2][this.slots];
+            this.moveCounts = new byte[2][this.slots];
+            this.captureWins = new byte[2][this.slots];
+            this.captureLosses = new byte[2][this.slots];
+            this.squares = new int[this.pieceCount];
+            this.captureSquares = new int[this.pieceCount];
+            this.captureMaterials = new EndgameMaterial[this.pieceCount];
+            this.captureTables = new byte[this.pieceCount][];
+            this.captureSlotPieces = new int[this.pieceCount][];
+            this.captureSwapsSides = new boolean[this.pieceCount];
+            for(int piece = this.pieceCount - 1; piece >= 0; piece--){
+                if(material.getPieceType(piece) == EndgameMaterial.KING){
+                    this.kings[material.getPieceSide(piece)] = piece;
+                } else {
+                    prepareCapture(piece);
+                }
+            }
+        }
+
+        //find the smaller table a capture of the piece lands in, and which of our pieces is which there.
+        private void prepareCapture(final int capturedPiece) throws IOException {
+            final int[][] sideTypes = new int[2][this.pieceCount];
+            final int[] sideCounts = new int[2];
+            for(int piece = 0; piece < this.pieceCount; piece++){
+                final int side = this.material.getPieceSide(piece);
+                if(piece != capturedPiece && this.material.getPieceType(piece) != EndgameMaterial.KING){
+                    sideTypes[side][sideCounts[side]++] = this.material.getPieceType(piece);
+                }
+            }
+            if(sideCounts[0] + sideCounts[1] == 0){
+                return;
+            }
+            final String sideA = EndgameMaterial.sideName(sideTypes[0], sideCounts[0]);
+            final String sideB = EndgameMaterial.sideName(sideTypes[1], sideCounts[1]);
+            final boolean swapsSides = !EndgameMaterial.isFirstSideStronger(sideA, sideB);
+            final EndgameMaterial captureMaterial = EndgameMaterial.of(EndgameMaterial.nameOf(sideA, sideB));
+            final int[] slotPieces = new int[captureMaterial.getPieceCount()];
+            final boolean[] used = new boolean[this.pieceCount];
+            used[capturedPiece] = true;
+            for(int slotPiece = 0; slotPiece < slotPieces.length; slotPiece++){
+                final int side = swapsSides ? 1 - captureMaterial.getPieceSide(slotPiece) :
+                                 captureMaterial.getPieceSide(slotPiece);
+                for(int piece = 0; piece < this.pieceCount; piece++){
+                    if(!used[piece] && this.material.getPieceSide(piece) == side &&
+                       this.material.getPieceType(piece) == captureMaterial.getPieceType(slotPiece)){
+                        used[piece] = true;
+                        slotPieces[slotPiece] = piece;
+                        break;
+                    }
+                }
+            }
+            final File file = EndgameTablebase.fileOf(TablebaseGenerator.this.directory, captureMaterial.getName());
+            if(!file.isFile() || file.length() != captureMaterial.getFileSize()){
+                throw new IOException(this.material + " needs " + file + ", generate it first");
+            }
+            this.captureMaterials[capturedPiece] = captureMaterial;
+            this.captureTables[capturedPiece] = Files.readAllBytes(file.toPath());
+            this.captureSlotPieces[capturedPiece] = slotPieces;
+            this.captureSwapsSides[capturedPiece] = swapsSides;
+        }
+
+        //step 1: legality, the moves that stay in the table, and what the captures lead to.
+        void initialize(){
+            for(int side = 0; side < 2; side++){
+                for(int slot = 0; slot < this.slots; slot++){
+                    this.material.squaresOf(slot, this.squares);
+                    if(!isCanonical(slot) || isAttacked(this.squares[this.kings[1 - side]], side, -1)){
+                        this.moveCounts[side][slot] = ILLEGAL;
+                        continue;
+                    }
+                    initializePosition(side, slot);
+                }
+            }
+        }
+
+        private boolean isCanonical(final int slot){
+            for(int i = 0; i < this.pieceCount; i++){
+                for(int j = i + 1; j < this.pieceCount; j++){
+                    if(this.squares[i] == this.squares[j]){
+                        return false;
+                    }
+                }
+            }
+            return this.material.slotOf(this.squares, this.scratch) == slot;
+        }
+
+        private void initializePosition(final int side, final int slot){
+            int successorCount = 0;
+            boolean hasMove = false;
+            boolean captureDraws = false;
+            int captureWin = 0;
+            int captureLoss = 0;
+            for(int piece = 0; piece < this.pieceCount; piece++){
+                if(this.material.getPieceSide(piece) != side){
+                    continue;
+                }
+                final int from = this.squares[piece];
+                for(final int[] path : pathsOf(this.material.getPieceType(piece), from)){
+                    for(final int to : path){
+                        final int capturedPiece = pieceOn(to);
+                        if(capturedPiece >= 0 && this.material.getPieceSide(capturedPiece) == side){
+                            break;
+                        }
+                        this.squares[piece] = to;
+                        if(!isAttacked(this.squares[this.kings[side]], 1 - side, capturedPiece)){
+                            hasMove = true;
+                            if(capturedPiece < 0){
+                                successorCount = addSuccessor(this.material.slotOf(this.squares, this.scratch),
+                                                              successorCount);
+                            } else {
+                                final int value = captureValue(capturedPiece, 1 - side);
+                                if(value == 0){
+                                    captureDraws = true;
+                                } else if((value - 1) % 2 == 0){
+                                    //the opponent is mated in value - 1 plies, we mate one ply later.
+                                    captureWin = captureWin == 0 ? value : Math.min(captureWin, value);
+                                } else {
+                                    captureLoss = Math.max(captureLoss, value);
+                                }
+                            }
+                        }
+                        this.squares[piece] = from;
+                        if(capturedPiece >= 0){
+                            break;
+                        }
+                    }
+                }
+            }
+            if(!hasMove){
+                //mated positions settle at ply 0, a stalemate keeps a count that never drops.
+                final boolean inCheck = isAttacked(this.squares[this.kings[side]], 1 - side, -1);
+                this.moveCounts[side][slot] = (byte) (inCheck ? 0 : 1);
+                return;
+            }
+            this.moveCounts[side][slot] = (byte) (successorCount + (captureDraws ? 1 : 0));
+            this.captureWins[side][slot] = (byte) captureWin;
+            this.captureLosses[side][slot] = (byte) captureLoss;
+            this.longestCapture = Math.max(this.longestCapture, Math.max(captureWin, captureLoss));
+        }
+
+        //a slot counts once however many moves lead there, like predecessors are counted once below.
+        private int addSuccessor(final int slot, final int successorCount){
+            for(int i = 0; i < successorCount; i++){
+                if(this.successors[i] == slot){
+                    return successorCount;
+                }
+            }
+            this.successors[successorCount] = slot;
+            return successorCount + 1;
+        }
+
+        //the entry after capturing the piece, for the side then to move, read in the smaller table.
+        private int captureValue(final int capturedPiece, final int sideToMove){
+            final EndgameMaterial captureMaterial = this.captureMaterials[capturedPiece];
+            if(captureMaterial == null){
+                return 0;
+            }
+            final int[] slotPieces = this.captureSlotPieces[capturedPiece];
+            for(int i = 0; i < slotPieces.length; i++){
+                this.captureSquares[i] = this.squares[slotPieces[i]];
+            }
+            final int captureSide = this.captureSwapsSides[capturedPiece] ? 1 - sideToMove : sideToMove;
+            final int slot = captureMaterial.slotOf(this.captureSquares, this.scratch);
+            return this.captureTables[capturedPiece][captureSide * captureMaterial.getSlotsPerSide() + slot] & 0xFF;
+        }
+
+        //step 2, one ply per pass, returns how many plies it took.
+        int resolve(){
+            int ply = 0;
+            for(; ply <= MAX_PLIES; ply++){
+                int resolved = 0;
+                for(int side = 0; side < 2; side++){
+                    for(int slot = 0; slot < this.slots; slot++){
+                        final int count = this.moveCounts[side][slot];
+                        if(count == ILLEGAL){
+                            continue;
+                        }
+                        if(this.values[side][slot] == 0 && settlesAt(side, slot, ply)){
+                            this.values[side][slot] = (byte) (ply + 1);
+                        }
+                        if((this.values[side][slot] & 0xFF) == ply + 1){
+                            resolved++;
+                            propagate(side, slot, ply);
+                        }
+                    }
+                }
+                //nothing happened at this ply and no capture has anything left to settle later.
+                if(resolved == 0 && ply >= this.longestCapture){
+                    break;
+                }
+            }
+            return ply;
+        }
+
+        //won through a capture now, or lost: no move left that does not lose and no capture that loses later.
+        private boolean settlesAt(final int side, final int slot, final int ply){
+            if(ply % 2 == 1){
+                return (this.captureWins[side][slot] & 0xFF) == ply;
+            }
+            return this.moveCounts[side][slot] == 0 && this.captureWins[side][slot] == 0 &&
+                   (this.captureLosses[side][slot] & 0xFF) <= ply;
+        }
+
+        //the position is resolved at this ply: update every position one move before it.
+        private void propagate(final int side, final int slot, final int ply){
+            this.material.squaresOf(slot, this.squares);
+            final int previousSide = 1 - side;
+            final long occupied = occupied(-1);
+            int predecessorCount = 0;
+            for(int piece = 0; piece < this.pieceCount; piece++){
+                if(this.material.getPieceSide(piece) != previousSide){
+                    continue;
+                }
+                final int to = this.squares[piece];
+                for(final int[] path : pathsOf(this.material.getPieceType(piece), to)){
+                    for(final int from : path){
+                        if((occupied & 1L << from) != 0){
+                            break;
+                        }
+                        this.squares[piece] = from;
+                        predecessorCount = addSuccessor(this.material.slotOf(this.squares, this.scratch),
+                                                        predecessorCount);
+                        this.squares[piece] = to;
+                    }
+                }
+            }
+            final boolean isLost = ply % 2 == 0;
+            for(int i = 0; i < predecessorCount; i++){
+                final int predecessor = this.successors[i];
+                if(this.moveCounts[previousSide][predecessor] == ILLEGAL ||
+                   this.values[previousSide][predecessor] != 0){
+                    continue;
+                }
+                if(isLost){
+                    if(ply + 2 <= MAX_PLIES + 1){
+                        this.values[previousSide][predecessor] = (byte) (ply + 2);
+                    }
+                } else {
+                    this.moveCounts[previousSide][predecessor]--;
+                }
+            }
+        }
+
+        private int pieceOn(final int tile){
+            for(int piece = 0; piece < this.pieceCount; piece++){
+                if(this.squares[piece] == tile){
+                    return piece;
+                }
+            }
+            return -1;
+        }
+
+        private long occupied(final int skippedPiece){
+            long occupied = 0;
+            for(int piece = 0; piece < this.pieceCount; piece++){
+                if(piece != skippedPiece){
+                    occupied |= 1L << this.squares[piece];
+                }
+            }
+            return occupied;
+        }
+
+        //does a piece of the side attack the tile, the skipped piece has just been captured.
+        private boolean isAttacked(final int tile, final int side, final int skippedPiece){
+            final long occupied = occupied(skippedPiece);
+            for(int piece = 0; piece < this.pieceCount; piece++){
+                if(piece == skippedPiece || this.material.getPieceSide(piece) != side){
+                    continue;
+                }
+                final int from = this.squares[piece];
+                final int type = this.material.getPieceType(piece);
+                if(type == EndgameMaterial.KING){
+                    if((KING_ATTACKS[from] & 1L << tile) != 0){
+                        return true;
+                    }
+                } else if(type == EndgameMaterial.KNIGHT){
+                    if((KNIGHT_ATTACKS[from] & 1L << tile) != 0){
+                        return true;
+                    }
+                } else {
+                    final boolean onLine = (type != EndgameMaterial.BISHOP && ROOK_LINE[from][tile]) ||
+                                           (type != EndgameMaterial.ROOK && BISHOP_LINE[from][tile]);
+                    if(onLine && (BETWEEN[from][tile] & occupied) == 0){
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        String summary(){
+            long wins = 0;
+            long losses = 0;
+            long draws = 0;
+            int longestWin = 0;
+            for(int slot = 0; slot < this.slots; slot++){
+                if(this.moveCounts[EndgameMaterial.SIDE_A][slot] == ILLEGAL){
+                    continue;
+                }
+                final int value = this.values[EndgameMaterial.SIDE_A][slot] & 0xFF;
+                if(value == 0){
+                    draws++;
+                } else if((value - 1) % 2 == 1){
+                    wins++;
+                    longestWin = Math.max(longestWin, value - 1);
+                } else {
+                    losses++;
+                }
+            }
+            return this.material.getName().split("v")[0] + " to move: " + wins + " won, " + draws +
+                   " drawn, " + losses + " lost, longest win " + longestWin + " plies";
+        }
+    }
+
+    /*
+    What a piece of the type can reach from the tile on an empty board, as paths: a slider has one path
+    per direction and stops at the first piece on it, a king or knight one path per single step.
+    */
+    private static int[][] pathsOf(final int type, final int tile){
+        switch(type){
+            case EndgameMaterial.KING:
+                return KING_PATHS[tile];
+            case EndgameMaterial.KNIGHT:
+                return KNIGHT_PATHS[tile];
+            case EndgameMaterial.ROOK:
+                return ROOK_PATHS[tile];
+            case EndgameMaterial.BISHOP:
+                return BISHOP_PATHS[tile];
+            default:
+                return RAYS[tile];
+        }
+    }
+
+    private static int[][][] initSliderPaths(final int firstDirection, final int lastDirection){
+        final int[][][] paths = new int[64][][];
+        for(int tile = 0; tile < 64; tile++){
+            paths[tile] = Arrays.copyOfRange(RAYS[tile], firstDirection, lastDirection);
+        }
+        return paths;
+    }
+
+    private static int[][][] initPaths(final int[][] steps){
+        final int[][][] paths = new int[64][][];
+        for(int tile = 0; tile < 64; tile++){
+            paths[tile] = new int[steps[tile].length][];
+            for(int i = 0; i < steps[tile].length; i++){
+                paths[tile][i] = new int[]{steps[tile][i]};
+            }
+        }
+        return paths;
+    }
+
+    private static int[][][] initRays(){
+        final int[][] directions = join(ROOK_DIRECTIONS, BISHOP_DIRECTIONS);
+        final int[][][] rays = new int[64][directions.length][];
+        for(int tile = 0; tile < 64; tile++){
+            for(int direction = 0; direction < directions.length; direction++){
+                final int[] ray = new int[7];
+                int length = 0;
+                int row = tile / 8 + directions[direction][0];
+                int column = tile % 8 + directions[direction][1];
+                while(row >= 0 && row < 8 && column >= 0 && column < 8){
+                    ray[length++] = row * 8 + column;
+                    row += directions[direction][0];
+                    column += directions[direction][1];
+                }
+                rays[tile][direction] = Arrays.copyOf(ray, length);
+            }
+        }
+        return rays;
+    }
+
+    private static int[][] initSteps(final int[][] offsets){
+        final int[][] steps = new int[64][];
+        for(int tile = 0; tile < 64; tile++){
+            final int[] tileSteps = new int[offsets.length];
+            int count = 0;
+            for(final int[] offset : offsets){
+                final int row = tile / 8 + offset[0];
+                final int column = tile % 8 + offset[1];
+                if(row >= 0 && row < 8 && column >= 0 && column < 8){
+                    tileSteps[count++] = row * 8 + column;
+                }
+            }
+            steps[tile] = Arrays.copyOf(tileSteps, count);
+        }
+        return steps;
+    }
+
+    private static long[] initAttacks(final int[][] steps){
+        final long[] attacks = new long[64];
+        for(int tile = 0; tile < 64; tile++){
+            for(final int step : steps[tile]){
+                attacks[tile] |= 1L << step;
+            }
+        }
+        return attacks;
+    }
+
+    private static int[][] join(final int[][] first, final int[][] second){
+        final int[][] joined = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, joined, first.length, second.length);
+        return joined;
+    }
+}
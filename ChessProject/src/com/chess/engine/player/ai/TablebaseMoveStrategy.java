@@ -0,0 +1,57 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+
+/*
+Plays straight from the endgame tables when the board is in one of them, and hands the board to the
+search otherwise. The result has depth 0, the table's score and the line to mate, or to the end of what
+the tables know, as its principal variation.
+*/
+public class TablebaseMoveStrategy implements SearchDriver {
+
+    //how many moves of the table's line the result carries.
+    private static final int LINE_LENGTH = 16;
+
+    private final EndgameTablebase tablebase;
+    private final SearchDriver searchDriver;
+
+    public TablebaseMoveStrategy(final EndgameTablebase tablebase, final SearchDriver searchDriver) {
+        this.tablebase = tablebase;
+        this.searchDriver = searchDriver;
+    }
+
+    @Override
+    public String toString(){
+        return "Tablebase + " + this.searchDriver;
+    }
+
+    @Override
+    public Move execute(final Board board) {
+        //no result when the side to move has no legal move, MinMax returns null there too.
+        final SearchResult searchResult = search(board);
+        return searchResult != null ? searchResult.getBestMove() : null;
+    }
+
+    @Override
+    public SearchResult search(final Board board) {
+        final SearchResult tablebaseResult = probeTablebase(board);
+        return tablebaseResult != null ? tablebaseResult : this.searchDriver.search(board);
+    }
+
+    @Override
+    public SearchResult search(final Board board, final SearchControl searchControl) {
+        final SearchResult tablebaseResult = probeTablebase(board);
+        return tablebaseResult != null ? tablebaseResult : this.searchDriver.search(board, searchControl);
+    }
+
+    private SearchResult probeTablebase(final Board board){
+        final int entry = this.tablebase.probe(board);
+        final Move move = entry != EndgameTablebase.NOT_FOUND ? this.tablebase.findBestMove(board) : null;
+        if(move == null){
+            return null;
+        }
+        return new SearchResult(move, EndgameTablebase.scoreOf(entry, 0), 0,
+                                this.tablebase.getLine(board, LINE_LENGTH));
+    }
+}
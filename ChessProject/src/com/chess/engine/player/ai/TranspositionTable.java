@@ -0,0 +1,210 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Move;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+Remembers what the search found for positions it has already seen, keyed by Board.getZobristKey().
+The table never grows: its size is fixed in megabytes when it is created, and every entry is two longs,
+the position key and a packed data word, kept in two flat arrays so there is no object per entry.
+
+Entries sit in buckets of two. The first slot keeps the deepest result (depth-preferred), the second
+always takes the newest one, so deep results survive while fresh shallow ones still get stored.
+
+Several search threads may share one table without locks. A slot stores the key XOR the data word
+instead of the key itself, and a probe only accepts the slot when key XOR data gives back the probed
+key. Two threads writing the same slot at once can leave the key of one next to the data of the other;
+that pair no longer verifies and is simply read as a miss. The statistics are counted with LongAdders
+so the threads do not fight over one counter.
+
+Data word layout, from the lowest bit:
+    0-31  score
+    32-43 best move (from tile and to tile, 6 bits each), zero when there is none
+    48-55 remaining depth the score was searched to
+    56-57 bound type
+    58-63 search generation, entries of earlier searches are replaced first
+*/
+public final class TranspositionTable {
+
+    //the score is exact, at most (fail low) or at least (fail high) the stored value.
+    public static final int UPPER_BOUND = 1;
+    public static final int LOWER_BOUND = 2;
+    public static final int EXACT = 3;
+
+    private static final int BYTES_PER_ENTRY = 16;
+    private static final int ENTRIES_PER_BUCKET = 2;
+    private static final int GENERATION_MASK = 0x3F;
+
+    private final long[] keys;
+    private final long[] entries;
+    private final int bucketMask;
+    private final int sizeInMegabytes;
+    private volatile int generation;
+
+    private final LongAdder probes;
+    private final LongAdder hits;
+    private final LongAdder stores;
+    private final LongAdder usedEntries;
+
+    public TranspositionTable(final int sizeInMegabytes) {
+        if(sizeInMegabytes < 1){
+            throw new IllegalArgumentException("Transposition table needs at least 1 MB");
+        }
+        //round down to a power of two number of buckets so a key maps to a bucket with one AND.
+        final long entryCount = ((long) sizeInMegabytes << 20) / BYTES_PER_ENTRY;
+        final int bucketCount = Integer.highestOneBit((int) Math.min(entryCount / ENTRIES_PER_BUCKET, 1 << 29));
+        this.keys = new long[bucketCount * ENTRIES_PER_BUCKET];
+        this.entries = new long[bucketCount * ENTRIES_PER_BUCKET];
+        this.bucketMask = bucketCount - 1;
+        this.sizeInMegabytes = sizeInMegabytes;
+        this.probes = new LongAdder();
+        this.hits = new LongAdder();
+        this.stores = new LongAdder();
+        this.usedEntries = new LongAdder();
+    }
+
+    public int getSizeInMegabytes(){
+        return this.sizeInMegabytes;
+    }
+
+    public int getCapacity(){
+        return this.entries.length;
+    }
+
+    //call once per search so entries of older searches are replaced before current ones.
+    public void newSearch(){
+        this.generation = (this.generation + 1) & GENERATION_MASK;
+    }
+
+    public void clear(){
+        Arrays.fill(this.keys, 0L);
+        Arrays.fill(this.entries, 0L);
+        this.probes.reset();
+        this.hits.reset();
+        this.stores.reset();
+        this.usedEntries.reset();
+    }
+
+    //the packed entry stored for this key, or zero when there is none.
+    public long probe(final long key){
+        this.probes.increment();
+        final int index = bucketIndex(key);
+        for(int i = index; i < index + ENTRIES_PER_BUCKET; i++){
+            //read the data word once, another thread may rewrite the slot at any time.
+            final long entry = this.entries[i];
+            if(entry != 0 && (this.keys[i] ^ entry) == key){
+                this.hits.increment();
+                return entry;
+            }
+        }
+        return 0L;
+    }
+
+    public void store(final long key,
+                      final int depth,
+                      final int bound,
+                      final int score,
+                      final int move){
+        this.stores.increment();
+        final int index = bucketIndex(key);
+        final long firstEntry = this.entries[index];
+        final int slot;
+        if(firstEntry == 0 || (this.keys[index] ^ firstEntry) == key ||
+           depth >= getDepth(firstEntry) || getGeneration(firstEntry) != this.generation){
+            slot = index;
+        } else {
+            slot = index + 1;
+        }
+        final long previousEntry = this.entries[slot];
+        //a search that found no best move should not wipe out the one we already had for this position.
+        final int storedMove = (move == 0 && (this.keys[slot] ^ previousEntry) == key) ? getMove(previousEntry) : move;
+        if(previousEntry == 0){
+            this.usedEntries.increment();
+        }
+        final long entry = pack(depth, bound, score, storedMove, this.generation);
+        this.keys[slot] = key ^ entry;
+        this.entries[slot] = entry;
+    }
+
+    public long getProbes(){
+        return this.probes.sum();
+    }
+
+    public long getHits(){
+        return this.hits.sum();
+    }
+
+    public long getStores(){
+        return this.stores.sum();
+    }
+
+    public double getHitRate(){
+        final long probeCount = getProbes();
+        return probeCount == 0 ? 0 : (double) getHits() / probeCount;
+    }
+
+    //share of the entries that hold a position.
+    public double getFillRate(){
+        return Math.min(1.0, (double) this.usedEntries.sum() / this.entries.length);
+    }
+
+    @Override
+    public String toString(){
+        return String.format("TT %d MB: %d entries, %.1f%% full, %d probes, %.1f%% hits",
+                             this.sizeInMegabytes, this.entries.length, getFillRate() * 100,
+                             getProbes(), getHitRate() * 100);
+    }
+
+    public static int getScore(final long entry){
+        return (int) entry;
+    }
+
+    public static int getMove(final long entry){
+        return (int) (entry >>> 32) & 0xFFF;
+    }
+
+    public static int getDepth(final long entry){
+        return (int) (entry >>> 48) & 0xFF;
+    }
+
+    public static int getBound(final long entry){
+        return (int) (entry >>> 56) & 0x3;
+    }
+
+    private static int getGeneration(final long entry){
+        return (int) (entry >>> 58) & GENERATION_MASK;
+    }
+
+    //a move fits in 12 bits: the tile it leaves and the tile it lands on are enough to find it again.
+    public static int encodeMove(final Move move){
+        return move == null ? 0 : (move.getCurrentCoordinate() << 6) | move.getDestinationCoordinate();
+    }
+
+    //a SearchBoard move already keeps its two tiles in the low 12 bits, the same way.
+    public static int encodeMove(final int searchMove){
+        return searchMove & 0xFFF;
+    }
+
+    public static boolean isSameMove(final Move move, final int encodedMove){
+        return encodedMove != 0 && encodeMove(move) == encodedMove;
+    }
+
+    private static long pack(final int depth,
+                             final int bound,
+                             final int score,
+                             final int move,
+                             final int generation){
+        return (score & 0xFFFFFFFFL) |
+               ((long) (move & 0xFFF) << 32) |
+               ((long) (depth & 0xFF) << 48) |
+               ((long) bound << 56) |
+               ((long) generation << 58);
+    }
+
+    private int bucketIndex(final long key){
+        //the low bits choose the bucket, mix in the high ones so both halves of the key count.
+        return (int) ((key ^ (key >>> 32)) & this.bucketMask) * ENTRIES_PER_BUCKET;
+    }
+}
@@ -2,6 +2,7 @@ package com.chess.gui;
 
 import com.chess.engine.board.Board;
 import com.chess.engine.board.Move;
+import com.chess.engine.player.ai.SearchResult;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
@@ -14,7 +15,10 @@ import static com.chess.gui.Table.*;
 public class GameHistoryPanel extends JPanel {
     private final DataModel model;
     private final JScrollPane scrollPane;
+    //the engine's best lines for the player to move, empty unless hints are on.
+    private final JTextArea hintArea;
     private static final Dimension HISTORY_PANEL_DIMENSION = new Dimension(100, 400);
+    private static final int HINT_ROWS = 3;
 
     GameHistoryPanel(){
         this.setLayout(new BorderLayout());
@@ -25,6 +29,11 @@ public class GameHistoryPanel extends JPanel {
         scrollPane.setColumnHeaderView(table.getTableHeader());
         scrollPane.setPreferredSize(HISTORY_PANEL_DIMENSION);
         this.add(scrollPane, BorderLayout.CENTER);
+        this.hintArea = new JTextArea(HINT_ROWS, 0);
+        this.hintArea.setEditable(false);
+        this.hintArea.setLineWrap(true);
+        this.hintArea.setFont(this.hintArea.getFont().deriveFont(10f));
+        this.add(this.hintArea, BorderLayout.SOUTH);
         this.setVisible(true);
     }
 
@@ -55,6 +64,20 @@ public class GameHistoryPanel extends JPanel {
         vertical.setValue(vertical.getMaximum());
     }
 
+    //one line per hint, best first: the move, its score and the line the engine expects after it.
+    void showHints(final List<SearchResult> hints){
+        final StringBuilder builder = new StringBuilder();
+        for(int i = 0; i < hints.size(); i++){
+            final SearchResult hint = hints.get(i);
+            if(i > 0){
+                builder.append('\n');
+            }
+            builder.append(i + 1).append(". ").append(hint.getBestMove()).append(" (").append(hint.getScore())
+                   .append(") ").append(hint.getPrincipalVariationText());
+        }
+        this.hintArea.setText(builder.toString());
+    }
+
     private String calculateCheckAndCheckMateHash(final Board board) {
         if(board.currentPlayer().isInCheckMate()){
             return "#";
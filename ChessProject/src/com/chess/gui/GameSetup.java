@@ -2,6 +2,7 @@ package com.chess.gui;
 
 import com.chess.engine.Alliance;
 import com.chess.engine.player.Player;
+import com.chess.engine.player.ai.SearchLimits;
 import com.chess.gui.Table.PlayerType;
 
 import javax.swing.*;
@@ -12,6 +13,9 @@ class GameSetup extends JDialog {
     private PlayerType whitePlayerType;
     private PlayerType blackPlayerType;
     private static JSpinner searchDepthSpinner;
+    private static JSpinner searchTimeSpinner;
+    private static JSpinner hashSizeSpinner;
+    private static JSpinner searchThreadsSpinner;
 
     private static final String HUMAN_TEXT = "Human";
     private static final String COMPUTER_TEXT = "Computer";
@@ -44,7 +48,14 @@ class GameSetup extends JDialog {
         myPanel.add(blackComputerButton);
 
         myPanel.add(new JLabel("Search"));
-        searchDepthSpinner = addLabeledSpinner(myPanel, new SpinnerNumberModel(4, 0, Integer.MAX_VALUE, 1));
+        searchDepthSpinner = addLabeledSpinner(myPanel, "Search Depth",
+                                               new SpinnerNumberModel(4, 1, SearchLimits.MAX_DEPTH, 1));
+        searchTimeSpinner = addLabeledSpinner(myPanel, "Time Per Move (ms)",
+                                              new SpinnerNumberModel(5000, 100, 600000, 100));
+        hashSizeSpinner = addLabeledSpinner(myPanel, "Hash Table (MB)",
+                                            new SpinnerNumberModel(64, 1, 4096, 16));
+        searchThreadsSpinner = addLabeledSpinner(myPanel, "Search Threads",
+                                                 new SpinnerNumberModel(1, 1, 256, 1));
         final JButton cancelButton = new JButton("Cancel");
         final JButton okButton = new JButton("OK");
 
@@ -89,8 +100,9 @@ class GameSetup extends JDialog {
     }
 
     private static JSpinner addLabeledSpinner(final Container c,
+                                              final String label,
                                               final SpinnerModel model) {
-        final JLabel l = new JLabel("Search Depth");
+        final JLabel l = new JLabel(label);
         c.add(l);
         final JSpinner spinner = new JSpinner(model);
         l.setLabelFor(spinner);
@@ -101,4 +113,16 @@ class GameSetup extends JDialog {
     public static int getSearchDepth() {
         return (Integer) searchDepthSpinner.getValue();
     }
+
+    public static int getSearchTime() {
+        return (Integer) searchTimeSpinner.getValue();
+    }
+
+    public static int getHashSize() {
+        return (Integer) hashSizeSpinner.getValue();
+    }
+
+    public static int getSearchThreads() {
+        return (Integer) searchThreadsSpinner.getValue();
+    }
 }
@@ -6,8 +6,19 @@ import com.chess.engine.board.Move;
 import com.chess.engine.board.Tiles;
 import com.chess.engine.pieces.Piece;
 import com.chess.engine.player.MoveTransition;
-import com.chess.engine.player.ai.MinMax;
-import com.chess.engine.player.ai.MoveStrategy;
+import com.chess.engine.player.ai.BookMoveStrategy;
+import com.chess.engine.player.ai.EndgameTablebase;
+import com.chess.engine.player.ai.IterativeDeepening;
+import com.chess.engine.player.ai.LazySMP;
+import com.chess.engine.player.ai.MultiPV;
+import com.chess.engine.player.ai.PolyglotBook;
+import com.chess.engine.player.ai.SearchConfig;
+import com.chess.engine.player.ai.SearchControl;
+import com.chess.engine.player.ai.SearchDriver;
+import com.chess.engine.player.ai.SearchLimits;
+import com.chess.engine.player.ai.SearchResult;
+import com.chess.engine.player.ai.TablebaseMoveStrategy;
+import com.chess.engine.player.ai.TranspositionTable;
 import com.google.common.collect.Lists;
 
 import javax.imageio.ImageIO;
@@ -16,6 +27,8 @@ import java.awt.*;
 
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
@@ -28,6 +41,8 @@ import static javax.swing.SwingUtilities.isLeftMouseButton;
 import static javax.swing.SwingUtilities.isRightMouseButton;
 
 public class Table extends Observable {
+    private static final String TITLE = "Ai Chess";
+    private final JFrame gameFrame;
     private final Color lightTileColor = Color.LIGHT_GRAY;
     private final Color darkTileColor = Color.DARK_GRAY;
     private final BoardPanel boardPanel;
@@ -46,27 +61,50 @@ public class Table extends Observable {
     private BoardDirection boardDirection;
     private Move computerMove;
     private boolean highlightLegalMoves;
+    private TranspositionTable transpositionTable;
+    //the engine search whose move will be played, if any.
+    private AiThink aiThink;
+    //the search on the position after the reply the engine expects, run while the human thinks.
+    private AiThink ponderThink;
+    private boolean ponder;
+    //the search for the hints shown to the human on move, if any.
+    private HintThink hintThink;
+    //the hints get a table of their own, a new hint search must not age the entries of the ponder search.
+    private TranspositionTable hintTable;
+    private boolean showHints;
+    //null until the user loads one, the engine then plays from it while the game is in the book.
+    private PolyglotBook openingBook;
+    //null until the user loads a directory of them, the engine then looks endgames up instead of searching.
+    private EndgameTablebase endgameTablebase;
 
     private static final Table INSTANCE = new Table();
 
     private Table() {
-        JFrame gameFrame = new JFrame("Ai Chess");
+        this.gameFrame = new JFrame(TITLE);
         this.boardDirection = BoardDirection.NORMAL;
         final JMenuBar tableMenuBar = createTableMenuBar();
-        gameFrame.setLayout(new BorderLayout());
-        gameFrame.setJMenuBar(tableMenuBar);
-        gameFrame.setSize(OUTER_FRAME_DIMENSION);
+        this.gameFrame.setLayout(new BorderLayout());
+        this.gameFrame.setJMenuBar(tableMenuBar);
+        this.gameFrame.setSize(OUTER_FRAME_DIMENSION);
+        //closing the window must not leave a search running in the background.
+        this.gameFrame.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+        this.gameFrame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(final WindowEvent e) {
+                stopAiThink();
+            }
+        });
         chessBoard = Board.createStandardBoard();
         this.gameHistoryPanel = new GameHistoryPanel();
         this.takenPiecesPanel = new TakenPiecesPanel();
         this.boardPanel = new BoardPanel();
         this.moveLog = new MoveLog();
         this.addObserver(new TableGameAiWatcher());
-        this.gameSetup = new GameSetup(gameFrame, true);
-        gameFrame.setVisible(true);
-        gameFrame.add(this.takenPiecesPanel, WEST);
-        gameFrame.add(this.boardPanel, CENTER);
-        gameFrame.add(this.gameHistoryPanel, EAST);
+        this.gameSetup = new GameSetup(this.gameFrame, true);
+        this.gameFrame.setVisible(true);
+        this.gameFrame.add(this.takenPiecesPanel, WEST);
+        this.gameFrame.add(this.boardPanel, CENTER);
+        this.gameFrame.add(this.gameHistoryPanel, EAST);
         this.highlightLegalMoves = false;
 
     }
@@ -90,11 +128,23 @@ public class Table extends Observable {
 
     private JMenu createFileMenu() {
         final JMenu fileMenu = new JMenu("File");
+        final JMenuItem newGameMenuItem = new JMenuItem("New Game");
+        newGameMenuItem.addActionListener(e -> newGame());
+        fileMenu.add(newGameMenuItem);
+
         //Open a game from a PGN file, a game played by someone and GUI can load prior games
         final JMenuItem openPGN = new JMenuItem("Load PGN File");
         openPGN.addActionListener(e -> System.out.println("Open up that PGN file!"));
         fileMenu.add(openPGN);
 
+        final JMenuItem openBookMenuItem = new JMenuItem("Load Opening Book");
+        openBookMenuItem.addActionListener(e -> loadOpeningBook());
+        fileMenu.add(openBookMenuItem);
+
+        final JMenuItem openTablebaseMenuItem = new JMenuItem("Load Endgame Tablebases");
+        openTablebaseMenuItem.addActionListener(e -> loadEndgameTablebase());
+        fileMenu.add(openTablebaseMenuItem);
+
         final JMenuItem exitMenuItem = new JMenuItem("Exit");
         exitMenuItem.addActionListener(e -> System.exit(0));
         fileMenu.add(exitMenuItem);
@@ -118,6 +168,22 @@ public class Table extends Observable {
 
         preferencesMenu.add(legalMoveHighlighterCheckbox);
 
+        final JCheckBoxMenuItem ponderCheckbox = new JCheckBoxMenuItem("Ponder", false);
+        ponderCheckbox.addActionListener(e -> {
+            ponder = ponderCheckbox.isSelected();
+            if(!ponder){
+                stopPondering();
+            }
+        });
+        preferencesMenu.add(ponderCheckbox);
+
+        final JCheckBoxMenuItem hintsCheckbox = new JCheckBoxMenuItem("Show Hints", false);
+        hintsCheckbox.addActionListener(e -> {
+            showHints = hintsCheckbox.isSelected();
+            startHints();
+        });
+        preferencesMenu.add(hintsCheckbox);
+
         return preferencesMenu;
     }
 
@@ -133,6 +199,138 @@ public class Table extends Observable {
         return  optionsMenu;
     }
 
+    private void loadOpeningBook(){
+        final JFileChooser fileChooser = new JFileChooser();
+        if(fileChooser.showOpenDialog(this.gameFrame) != JFileChooser.APPROVE_OPTION){
+            return;
+        }
+        try {
+            this.openingBook = new PolyglotBook(fileChooser.getSelectedFile());
+            System.out.println("opening book " + fileChooser.getSelectedFile() + ": " +
+                               this.openingBook.getEntryCount() + " entries");
+        } catch (final IOException e) {
+            JOptionPane.showMessageDialog(this.gameFrame, "Could not open the book: " + e.getMessage());
+        }
+    }
+
+    //the directory TablebaseGenerator wrote its tables to.
+    private void loadEndgameTablebase(){
+        final JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        if(fileChooser.showOpenDialog(this.gameFrame) != JFileChooser.APPROVE_OPTION){
+            return;
+        }
+        try {
+            this.endgameTablebase = new EndgameTablebase(fileChooser.getSelectedFile());
+            System.out.println("endgame tablebases " + fileChooser.getSelectedFile() + ": " +
+                               this.endgameTablebase.getTableCount() + " tables");
+        } catch (final IOException e) {
+            JOptionPane.showMessageDialog(this.gameFrame, "Could not open the tablebases: " + e.getMessage());
+        }
+    }
+
+    //stop the engine, put the pieces back and let the computer open if it plays white.
+    private void newGame(){
+        stopAiThink();
+        this.chessBoard = Board.createStandardBoard();
+        this.moveLog.clear();
+        this.computerMove = null;
+        this.sourceTile = null;
+        this.destinationTile = null;
+        this.humanMovedPiece = null;
+        this.gameFrame.setTitle(TITLE);
+        this.gameHistoryPanel.redo(this.chessBoard, this.moveLog);
+        this.takenPiecesPanel.redo(this.moveLog);
+        this.boardPanel.drawBoard(this.chessBoard);
+        moveMadeUpdate(PlayerType.HUMAN);
+    }
+
+    //the search returns within a thousand nodes or so, and its move is thrown away.
+    private void stopAiThink(){
+        if(this.aiThink != null){
+            this.aiThink.searchControl.stop();
+            this.aiThink = null;
+        }
+        stopPondering();
+        stopHints();
+    }
+
+    private void stopHints(){
+        if(this.hintThink != null){
+            this.hintThink.searchControl.stop();
+            this.hintThink = null;
+        }
+        this.gameHistoryPanel.showHints(Collections.emptyList());
+    }
+
+    //the best few moves for the human on move, searched in the background while they think.
+    private void startHints(){
+        stopHints();
+        if(!this.showHints || this.gameSetup.isAIPlayer(this.chessBoard.currentPlayer()) ||
+           this.chessBoard.currentPlayer().isInCheckMate() || this.chessBoard.currentPlayer().isInStaleMate()){
+            return;
+        }
+        this.hintThink = new HintThink(this.chessBoard);
+        this.hintThink.execute();
+    }
+
+    private void stopPondering(){
+        if(this.ponderThink != null){
+            this.ponderThink.searchControl.stop();
+            this.ponderThink = null;
+        }
+    }
+
+    /*
+    The computer is to move. If we were pondering on the very position on the board (a ponder hit), the
+    running search simply gets its time limit from now on and goes on with everything it has found;
+    if it even finished already, its move is played right away. Otherwise the ponder search is stopped
+    and thrown away and a fresh search starts.
+    */
+    private void startAiThink(){
+        final AiThink ponderThink = this.ponderThink;
+        this.ponderThink = null;
+        if(ponderThink != null){
+            if(ponderThink.board.getZobristKey() == this.chessBoard.getZobristKey()){
+                System.out.println("ponder hit after " + ponderThink.searchControl.getElapsedMillis() + " ms");
+                this.aiThink = ponderThink;
+                if(ponderThink.isDone()){
+                    ponderThink.playMove();
+                } else {
+                    ponderThink.searchControl.setTimeLimit(GameSetup.getSearchTime());
+                }
+                return;
+            }
+            System.out.println("ponder miss");
+            ponderThink.searchControl.stop();
+        }
+        this.aiThink = new AiThink(this.chessBoard, false);
+        this.aiThink.execute();
+    }
+
+    //after the computer's move, search the position the expected reply leads to until the human moves.
+    private void startPondering(final SearchResult searchResult){
+        final List<Move> principalVariation = searchResult.getPrincipalVariation();
+        if(!this.ponder || principalVariation.size() < 2 || this.gameSetup.isAIPlayer(this.chessBoard.currentPlayer())){
+            return;
+        }
+        final Move expectedReply = principalVariation.get(1);
+        final MoveTransition transition = this.chessBoard.currentPlayer().makeMove(
+                Move.MoveFactory.createMove(this.chessBoard,
+                                            expectedReply.getCurrentCoordinate(),
+                                            expectedReply.getDestinationCoordinate()));
+        if(!transition.getMoveStatus().isDone()){
+            return;
+        }
+        final Board ponderBoard = transition.getTransitionBoard();
+        if(ponderBoard.currentPlayer().isInCheckMate() || ponderBoard.currentPlayer().isInStaleMate()){
+            return;
+        }
+        System.out.println("pondering on " + expectedReply);
+        this.ponderThink = new AiThink(ponderBoard, true);
+        this.ponderThink.execute();
+    }
+
     private void setupUpdate(final GameSetup gameSetup){
         setChanged();
         notifyObservers(gameSetup);
@@ -153,17 +351,33 @@ public class Table extends Observable {
         return computerMove;
     }
 
+    //kept from move to move so the engine starts from what it already knows, rebuilt when the size changes.
+    private TranspositionTable getTranspositionTable() {
+        if(this.transpositionTable == null || this.transpositionTable.getSizeInMegabytes() != GameSetup.getHashSize()) {
+            this.transpositionTable = new TranspositionTable(GameSetup.getHashSize());
+        }
+        return this.transpositionTable;
+    }
+
+    private TranspositionTable getHintTable() {
+        if(this.hintTable == null) {
+            this.hintTable = new TranspositionTable(HintThink.HINT_TABLE_SIZE);
+        }
+        return this.hintTable;
+    }
+
     private static class TableGameAiWatcher implements Observer{
 
         //if current player is an AI player, we want the Ai to move
         @Override
         public void update(Observable o, Object arg) {
+            //the old hints belong to the board before, new ones are searched if a human is on move.
+            Table.get().startHints();
             if(Table.get().getGameSetup().isAIPlayer(Table.get().getGameBoard().currentPlayer()) &&
                 !Table.get().getGameBoard().currentPlayer().isInCheckMate() &&
                 !Table.get().getGameBoard().currentPlayer().isInStaleMate()){
                 //create an Ai thread and execute Ai Work
-                final AiThink aiThink = new AiThink();
-                aiThink.execute();
+                Table.get().startAiThink();
             }
             //game ended due to checkmate
             if(Table.get().getGameBoard().currentPlayer().isInCheckMate()){
@@ -180,34 +394,129 @@ public class Table extends Observable {
         return this.chessBoard;
     }
 
-    private static class AiThink extends SwingWorker<Move, String>{
-        private AiThink(){
-
+    private static class AiThink extends SwingWorker<SearchResult, String>{
+        //the board the search was started on, and the handle the table uses to stop it.
+        private final Board board;
+        private final SearchDriver searchDriver;
+        private final SearchControl searchControl;
+
+        //a ponder search has no time limit until the human plays the move it expects.
+        private AiThink(final Board board, final boolean isPonderSearch){
+            final SearchLimits searchLimits = new SearchLimits.Builder()
+                    .setMaxDepth(GameSetup.getSearchDepth())
+                    .setMaxMillis(isPonderSearch ? 0 : GameSetup.getSearchTime())
+                    .build();
+            this.board = board;
+            final EndgameTablebase tablebase = Table.get().endgameTablebase;
+            final SearchConfig searchConfig = new SearchConfig.Builder(SearchConfig.DEFAULT)
+                    .setTablebase(tablebase)
+                    .build();
+            //more than one thread means Lazy SMP, the threads share the game's transposition table.
+            SearchDriver searchDriver = GameSetup.getSearchThreads() > 1 ?
+                    new LazySMP(searchLimits, GameSetup.getSearchThreads(), Table.get().getTranspositionTable(),
+                                searchConfig) :
+                    new IterativeDeepening(searchLimits, Table.get().getTranspositionTable(), searchConfig);
+            if(tablebase != null){
+                searchDriver = new TablebaseMoveStrategy(tablebase, searchDriver);
+            }
+            this.searchDriver = Table.get().openingBook != null ?
+                    new BookMoveStrategy(Table.get().openingBook, searchDriver) : searchDriver;
+            this.searchControl = SearchControl.of(searchLimits);
         }
 
         @Override
-        protected Move doInBackground() {
-            final MoveStrategy minMax = new MinMax(GameSetup.getSearchDepth());
-            return minMax.execute(Table.get().getGameBoard());
+        protected SearchResult doInBackground() {
+            return this.searchDriver.search(this.board, this.searchControl);
         }
 
+        /*
+        A stopped search belongs to a board that is gone. A ponder search that finished before the human
+        moved waits for startAiThink() to find it, it plays its move there on a ponder hit.
+        */
         @Override
         public void done(){
+            if(Table.get().aiThink == this){
+                playMove();
+            }
+        }
+
+        private void playMove(){
+            Table.get().aiThink = null;
             try {
-                final Move bestMove = get();
+                final SearchResult searchResult = get();
+                //the search may have run on another board object of the same position, ask the game board.
+                final Board gameBoard = Table.get().getGameBoard();
+                final Move searchedMove = searchResult.getBestMove();
+                //book and tablebase moves come without statistics, they took no search.
+                System.out.println(searchResult.getStatistics() != null ?
+                                   searchResult + ", " + searchResult.getStatistics() : searchResult);
+                final Move bestMove = Move.MoveFactory.createMove(gameBoard,
+                                                                  searchedMove.getCurrentCoordinate(),
+                                                                  searchedMove.getDestinationCoordinate());
+                Table.get().showExpectedLine(searchResult);
                 Table.get().updateComputerMove(bestMove);
-                Table.get().updateGameBoard(Table.get().getGameBoard().currentPlayer().makeMove(bestMove).getTransitionBoard());
+                Table.get().updateGameBoard(gameBoard.currentPlayer().makeMove(bestMove).getTransitionBoard());
                 Table.get().getMoveLog().addMove(bestMove);
                 Table.get().getGameHistoryPanel().redo(Table.get().getGameBoard(), Table.get().getMoveLog());
                 Table.get().getTakenPiecesPanel().redo(Table.get().getMoveLog());
                 Table.get().getBoardPanel().drawBoard(Table.get().getGameBoard());
                 Table.get().moveMadeUpdate(PlayerType.COMPUTER);
+                Table.get().startPondering(searchResult);
             } catch (InterruptedException | ExecutionException e) {
                 e.printStackTrace();
             }
         }
     }
 
+    //searches the lines GameHistoryPanel shows as hints, with the settings the engine plays with.
+    private static class HintThink extends SwingWorker<List<SearchResult>, String>{
+        private static final int HINT_LINES = 3;
+        //in megabytes, a few lines for one move do not need the game's table size.
+        private static final int HINT_TABLE_SIZE = 16;
+
+        private final Board board;
+        private final MultiPV multiPV;
+        private final SearchControl searchControl;
+
+        private HintThink(final Board board){
+            final SearchLimits searchLimits = new SearchLimits.Builder()
+                    .setMaxDepth(GameSetup.getSearchDepth())
+                    .setMaxMillis(GameSetup.getSearchTime())
+                    .build();
+            this.board = board;
+            final SearchConfig searchConfig = new SearchConfig.Builder(SearchConfig.DEFAULT)
+                    .setTablebase(Table.get().endgameTablebase)
+                    .build();
+            this.multiPV = new MultiPV(searchLimits, HINT_LINES, Table.get().getHintTable(), searchConfig);
+            this.searchControl = SearchControl.of(searchLimits);
+        }
+
+        @Override
+        protected List<SearchResult> doInBackground() {
+            return this.multiPV.analyze(this.board, this.searchControl);
+        }
+
+        //hints that come in after a move was made are for a board that is gone.
+        @Override
+        public void done(){
+            if(Table.get().hintThink != this){
+                return;
+            }
+            Table.get().hintThink = null;
+            try {
+                Table.get().getGameHistoryPanel().showHints(get());
+            } catch (InterruptedException | ExecutionException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    //the line the engine expects after its move, in the title bar so it stays out of the way of the board.
+    private void showExpectedLine(final SearchResult searchResult) {
+        this.gameFrame.setTitle(TITLE + " - depth " + searchResult.getDepth() + " (" + searchResult.getScore() +
+                                "): " + searchResult.getPrincipalVariationText());
+    }
+
     private void updateComputerMove(final Move move) {
         setComputerMove(move);
     }
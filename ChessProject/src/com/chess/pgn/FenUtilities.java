@@ -0,0 +1,106 @@
+package com.chess.pgn;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.pieces.*;
+
+/*
+Reads positions written in Forsyth-Edwards Notation. The first field lists the ranks from the eighth to
+the first, a8 to h8 first, which is the same order as our tile coordinates. Castling rights are not read:
+the board derives them from the rooks and kings that have not moved, which is every piece we create here.
+*/
+public class FenUtilities {
+
+    //the standard board of this engine: the kings start on the d file and the queens on the e file.
+    public static final String STANDARD_BOARD_FEN = "rnbkqbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBKQBNR w - - 0 1";
+
+    //prevent the user from instantiating this class.
+    private FenUtilities(){
+        throw new RuntimeException("Not instantiable!");
+    }
+
+    public static Board createGameFromFEN(final String fenString){
+        final String[] fenFields = fenString.trim().split("\\s+");
+        if(fenFields.length < 2){
+            throw new IllegalArgumentException("Invalid FEN: " + fenString);
+        }
+        final Board.Builder builder = new Board.Builder();
+        int tileCoordinate = 0;
+        int whiteKings = 0;
+        int blackKings = 0;
+        for(final char c : fenFields[0].toCharArray()){
+            if(c == '/'){
+                continue;
+            }
+            if(Character.isDigit(c)){
+                tileCoordinate += c - '0';
+                continue;
+            }
+            if(!BoardUtils.isValidTileCoordinate(tileCoordinate)){
+                throw new IllegalArgumentException("Invalid FEN: " + fenString);
+            }
+            builder.setPiece(createPiece(c, tileCoordinate));
+            if(c == 'K'){
+                whiteKings++;
+            } else if(c == 'k'){
+                blackKings++;
+            }
+            tileCoordinate++;
+        }
+        if(tileCoordinate != BoardUtils.NUM_TILES){
+            throw new IllegalArgumentException("Invalid FEN: " + fenString);
+        }
+        //Board cannot be built without a king on each side, say so before it fails on its own.
+        if(whiteKings != 1 || blackKings != 1){
+            throw new IllegalArgumentException("Invalid FEN, needs one king on each side: " + fenString);
+        }
+        final Alliance moveMaker = moveMaker(fenFields[1]);
+        builder.setMoveMaker(moveMaker);
+        if(fenFields.length > 3 && !fenFields[3].equals("-")){
+            //the en passant field names the tile behind the pawn that just jumped.
+            final int enPassantTile = tileCoordinateOf(fenFields[3]);
+            final int pawnTile = enPassantTile + (moveMaker.isWhite() ? BoardUtils.NUM_TILES_PER_ROW : -BoardUtils.NUM_TILES_PER_ROW);
+            builder.setEnPassantPawn(new Pawn(pawnTile, moveMaker.isWhite() ? Alliance.BLACK : Alliance.WHITE));
+        }
+        return builder.build();
+    }
+
+    public static int tileCoordinateOf(final String algebraicNotation){
+        for(int i = 0; i < BoardUtils.NUM_TILES; i++){
+            if(BoardUtils.ALGEBRAIC_NOTATION[i].equals(algebraicNotation)){
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Invalid tile: " + algebraicNotation);
+    }
+
+    private static Alliance moveMaker(final String moveMakerString){
+        if(moveMakerString.equals("w")){
+            return Alliance.WHITE;
+        } else if(moveMakerString.equals("b")){
+            return Alliance.BLACK;
+        }
+        throw new IllegalArgumentException("Invalid FEN side to move: " + moveMakerString);
+    }
+
+    private static Piece createPiece(final char c, final int tileCoordinate){
+        final Alliance alliance = Character.isUpperCase(c) ? Alliance.WHITE : Alliance.BLACK;
+        switch(Character.toUpperCase(c)){
+            case 'P':
+                return new Pawn(tileCoordinate, alliance);
+            case 'N':
+                return new Knight(tileCoordinate, alliance);
+            case 'B':
+                return new Bishop(tileCoordinate, alliance);
+            case 'R':
+                return new Rook(tileCoordinate, alliance);
+            case 'Q':
+                return new Queen(tileCoordinate, alliance);
+            case 'K':
+                return new King(tileCoordinate, alliance);
+            default:
+                throw new IllegalArgumentException("Invalid FEN piece: " + c);
+        }
+    }
+}
@@ -0,0 +1,576 @@
+package com.chess.pgn;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.player.ai.PolyglotBook;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+Builds an opening book for PolyglotBook out of PGN files:
+
+    1. every file is read by its own task, at most one task per thread. Each game is replayed through
+       PgnUtilities and Player.makeMove up to the last book ply, and every (position, move) it passes is
+       written down with the result of the game for the side that made the move.
+    2. a task keeps its records in two primitive arrays. When they are full it sorts them, adds up the
+       records of the same position and move, and spills them as a sorted run to the work directory.
+       The arrays of all the tasks together stay within the memory budget, whatever the size of the corpus.
+    3. the runs are merged, many at a time, until one pass can merge what is left straight into the book.
+       The weight of a move is its score, two points a win and one a draw, scaled to 16 bits per position.
+
+    java com.chess.pgn.PgnBookBuilder book.bin [--plies N] [--memory MB] [--threads N] [--min-games N] games.pgn...
+*/
+public final class PgnBookBuilder {
+
+    //key, move, then how many games were won, drawn, lost or unfinished after the move.
+    private static final int RUN_RECORD_SIZE = 8 + 2 + 4 * 4;
+    //two arrays per record in memory: a long key and an int with the move and the result.
+    private static final int BUFFER_RECORD_SIZE = 8 + 4;
+    //runs open at once in a merge, each one holds a buffered stream.
+    private static final int MERGE_WIDTH = 64;
+    private static final int STREAM_BUFFER_SIZE = 1 << 16;
+
+    private static final int LOSS = 0;
+    private static final int DRAW = 1;
+    private static final int WIN = 2;
+    private static final int UNFINISHED = 3;
+
+    private final int maxPly;
+    private final long memoryBudget;
+    private final int threadCount;
+    private final int minGames;
+    private final File workDirectory;
+
+    private final LongAdder gamesRead = new LongAdder();
+    private final LongAdder gamesRejected = new LongAdder();
+    private final LongAdder positionsRecorded = new LongAdder();
+
+    private PgnBookBuilder(final Builder builder){
+        this.maxPly = builder.maxPly;
+        this.memoryBudget = builder.memoryBudgetInMegabytes * 1024L * 1024L;
+        this.threadCount = builder.threadCount;
+        this.minGames = builder.minGames;
+        this.workDirectory = builder.workDirectory;
+    }
+
+    public static void main(final String[] args) throws IOException {
+        if(args.length < 2){
+            System.out.println("usage: PgnBookBuilder book.bin [--plies N] [--memory MB] [--threads N] " +
+                               "[--min-games N] games.pgn...");
+            return;
+        }
+        final Builder builder = new Builder();
+        final List<File> pgnFiles = new ArrayList<>();
+        for(int i = 1; i < args.length; i++){
+            switch (args[i]) {
+                case "--plies":
+                    builder.setMaxPly(Integer.parseInt(args[++i]));
+                    break;
+                case "--memory":
+                    builder.setMemoryBudget(Integer.parseInt(args[++i]));
+                    break;
+                case "--threads":
+                    builder.setThreadCount(Integer.parseInt(args[++i]));
+                    break;
+                case "--min-games":
+                    builder.setMinGames(Integer.parseInt(args[++i]));
+                    break;
+                default:
+                    pgnFiles.add(new File(args[i]));
+            }
+        }
+        builder.build().buildBook(pgnFiles, new File(args[0]));
+    }
+
+    //returns the number of book entries written.
+    public long buildBook(final List<File> pgnFiles, final File bookFile) throws IOException {
+        final long startTime = System.currentTimeMillis();
+        final List<File> runs = spillRuns(pgnFiles);
+        System.out.println(this.gamesRead + " games (" + this.gamesRejected + " not replayable), " +
+                           this.positionsRecorded + " positions, " + runs.size() + " runs in " +
+                           (System.currentTimeMillis() - startTime) + " ms");
+        final long entries = mergeRuns(runs, bookFile);
+        System.out.println(entries + " book entries written to " + bookFile + " in " +
+                           (System.currentTimeMillis() - startTime) + " ms");
+        return entries;
+    }
+
+    private List<File> spillRuns(final List<File> pgnFiles) throws IOException {
+        final int bufferCapacity = (int) Math.min(Integer.MAX_VALUE - 8,
+                                                  this.memoryBudget / this.threadCount / BUFFER_RECORD_SIZE);
+        final ExecutorService executor = Executors.newFixedThreadPool(this.threadCount);
+        try {
+            final List<Future<List<File>>> tasks = new ArrayList<>();
+            for(final File pgnFile : pgnFiles){
+                tasks.add(executor.submit(() -> readGames(pgnFile, bufferCapacity)));
+            }
+            final List<File> runs = new ArrayList<>();
+            for(final Future<List<File>> task : tasks){
+                runs.addAll(task.get());
+            }
+            return runs;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading games", e);
+        } catch (final ExecutionException e) {
+            throw new IOException("Could not read games", e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    //one task: replay the games of one file and spill what they recorded as sorted runs.
+    private List<File> readGames(final File pgnFile, final int bufferCapacity) throws IOException {
+        final RecordBuffer buffer = new RecordBuffer(bufferCapacity);
+        final List<File> runs = new ArrayList<>();
+        try(final PgnGameReader reader = new PgnGameReader(new FileReader(pgnFile))){
+            PgnGame game;
+            while((game = reader.readGame()) != null){
+                this.gamesRead.increment();
+                try {
+                    recordGame(game, buffer, runs);
+                } catch (final RuntimeException e) {
+                    //a game the board cannot follow must not cost the rest of the file, keep what came before.
+                    this.gamesRejected.increment();
+                }
+            }
+        }
+        if(!buffer.isEmpty()){
+            runs.add(buffer.spill(this.workDirectory));
+        }
+        return runs;
+    }
+
+    private void recordGame(final PgnGame game, final RecordBuffer buffer, final List<File> runs) throws IOException {
+        Board board = startingBoard(game);
+        final List<String> moves = game.getMoves();
+        for(int ply = 0; ply < this.maxPly && ply < moves.size(); ply++){
+            final Move move = board != null ? PgnUtilities.createMove(board, moves.get(ply)) : null;
+            if(move == null){
+                //the rest of the game cannot be followed, keep what came before.
+                this.gamesRejected.increment();
+                return;
+            }
+            if(buffer.isFull()){
+                runs.add(buffer.spill(this.workDirectory));
+            }
+            buffer.add(board.getZobristKey(), PolyglotBook.encodeMove(move),
+                       resultFor(game, board.currentPlayer().getAlliance().isWhite()));
+            this.positionsRecorded.increment();
+            board = board.currentPlayer().makeMove(move).getTransitionBoard();
+        }
+    }
+
+    private static Board startingBoard(final PgnGame game){
+        final String fen = game.getTag("FEN");
+        if(fen == null){
+            return Board.createStandardBoard();
+        }
+        try {
+            return FenUtilities.createGameFromFEN(fen);
+        } catch (final IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static int resultFor(final PgnGame game, final boolean isWhite){
+        if(game.isDraw()){
+            return DRAW;
+        }
+        if(game.isWhiteWin()){
+            return isWhite ? WIN : LOSS;
+        }
+        if(game.isBlackWin()){
+            return isWhite ? LOSS : WIN;
+        }
+        return UNFINISHED;
+    }
+
+    //merge MERGE_WIDTH runs at a time into bigger runs until the last merge can write the book.
+    private long mergeRuns(final List<File> runs, final File bookFile) throws IOException {
+        List<File> remaining = runs;
+        while(remaining.size() > MERGE_WIDTH){
+            final List<File> merged = new ArrayList<>();
+            for(int i = 0; i < remaining.size(); i += MERGE_WIDTH){
+                final List<File> group = remaining.subList(i, Math.min(remaining.size(), i + MERGE_WIDTH));
+                final File run = File.createTempFile("book-run", ".bin", this.workDirectory);
+                run.deleteOnExit();
+                try(final RunWriter writer = new RunWriter(run)){
+                    merge(group, writer);
+                }
+                deleteAll(group);
+                merged.add(run);
+            }
+            remaining = merged;
+        }
+        final BookWriter writer = new BookWriter(bookFile, this.minGames);
+        try {
+            merge(remaining, writer);
+        } finally {
+            //closing writes the moves of the last position.
+            writer.close();
+        }
+        deleteAll(remaining);
+        return writer.entriesWritten;
+    }
+
+    //k-way merge: always take the smallest (key, move) at the head of a run and add up equal ones.
+    private static void merge(final List<File> runs, final RecordSink sink) throws IOException {
+        final PriorityQueue<RunReader> heads = new PriorityQueue<>(Math.max(1, runs.size()),
+                (first, second) -> compare(first.key, first.move, second.key, second.move));
+        try {
+            for(final File run : runs){
+                final RunReader reader = new RunReader(run);
+                if(reader.next()){
+                    heads.add(reader);
+                } else {
+                    reader.close();
+                }
+            }
+            final Record record = new Record();
+            boolean hasRecord = false;
+            while(!heads.isEmpty()){
+                final RunReader head = heads.poll();
+                if(hasRecord && head.key == record.key && head.move == record.move){
+                    record.add(head.counts);
+                } else {
+                    if(hasRecord){
+                        sink.accept(record);
+                    }
+                    record.set(head.key, head.move, head.counts);
+                    hasRecord = true;
+                }
+                if(head.next()){
+                    heads.add(head);
+                } else {
+                    head.close();
+                }
+            }
+            if(hasRecord){
+                sink.accept(record);
+            }
+        } finally {
+            for(final RunReader reader : heads){
+                reader.close();
+            }
+        }
+    }
+
+    private static int compare(final long key, final int move, final long otherKey, final int otherMove){
+        final int keyOrder = Long.compareUnsigned(key, otherKey);
+        return keyOrder != 0 ? keyOrder : Integer.compare(move, otherMove);
+    }
+
+    private static void deleteAll(final List<File> files){
+        for(final File file : files){
+            if(!file.delete()){
+                file.deleteOnExit();
+            }
+        }
+    }
+
+    //one (position, move) and its results: counts[LOSS], counts[DRAW], counts[WIN], counts[UNFINISHED].
+    private static final class Record {
+        long key;
+        int move;
+        final int[] counts = new int[4];
+
+        void set(final long key, final int move, final int[] counts){
+            this.key = key;
+            this.move = move;
+            System.arraycopy(counts, 0, this.counts, 0, this.counts.length);
+        }
+
+        void add(final int[] counts){
+            for(int i = 0; i < this.counts.length; i++){
+                this.counts[i] += counts[i];
+            }
+        }
+
+        int games(){
+            return this.counts[LOSS] + this.counts[DRAW] + this.counts[WIN] + this.counts[UNFINISHED];
+        }
+
+        //an unfinished game counts as a draw, the move was at least played.
+        long score(){
+            return 2L * this.counts[WIN] + this.counts[DRAW] + this.counts[UNFINISHED];
+        }
+    }
+
+    private interface RecordSink extends Closeable {
+        void accept(Record record) throws IOException;
+    }
+
+    /*
+    Records of one task: the position key in one array, the move and the result packed in the other.
+    Sorting both arrays together on (key, move) brings the records to add up next to each other.
+    */
+    private static final class RecordBuffer {
+        private final long[] keys;
+        private final int[] data;
+        private int size;
+
+        RecordBuffer(final int capacity){
+            this.keys = new long[capacity];
+            this.data = new int[capacity];
+        }
+
+        boolean isFull(){
+            return this.size == this.keys.length;
+        }
+
+        boolean isEmpty(){
+            return this.size == 0;
+        }
+
+        void add(final long key, final int move, final int result){
+            this.keys[this.size] = key;
+            this.data[this.size] = move << 2 | result;
+            this.size++;
+        }
+
+        File spill(final File workDirectory) throws IOException {
+            sort(0, this.size - 1);
+            final File run = File.createTempFile("book-run", ".bin", workDirectory);
+            run.deleteOnExit();
+            try(final RunWriter writer = new RunWriter(run)){
+                final Record record = new Record();
+                int i = 0;
+                while(i < this.size){
+                    final long key = this.keys[i];
+                    final int move = this.data[i] >>> 2;
+                    record.key = key;
+                    record.move = move;
+                    Arrays.fill(record.counts, 0);
+                    while(i < this.size && this.keys[i] == key && this.data[i] >>> 2 == move){
+                        record.counts[this.data[i] & 3]++;
+                        i++;
+                    }
+                    writer.accept(record);
+                }
+            }
+            this.size = 0;
+            return run;
+        }
+
+        //quicksort on both arrays at once, recursing into the smaller half so the stack stays shallow.
+        private void sort(int low, int high){
+            while(high - low > 16){
+                final int pivotIndex = low + (high - low) / 2;
+                final long pivotKey = this.keys[pivotIndex];
+                final int pivotData = this.data[pivotIndex];
+                int i = low;
+                int j = high;
+                while(i <= j){
+                    while(compare(this.keys[i], this.data[i], pivotKey, pivotData) < 0){
+                        i++;
+                    }
+                    while(compare(this.keys[j], this.data[j], pivotKey, pivotData) > 0){
+                        j--;
+                    }
+                    if(i <= j){
+                        swap(i++, j--);
+                    }
+                }
+                if(j - low < high - i){
+                    sort(low, j);
+                    low = i;
+                } else {
+                    sort(i, high);
+                    high = j;
+                }
+            }
+            for(int i = low + 1; i <= high; i++){
+                for(int j = i; j > low && compareAt(j - 1, j) > 0; j--){
+                    swap(j - 1, j);
+                }
+            }
+        }
+
+        private int compareAt(final int first, final int second){
+            return compare(this.keys[first], this.data[first], this.keys[second], this.data[second]);
+        }
+
+        private void swap(final int first, final int second){
+            final long key = this.keys[first];
+            this.keys[first] = this.keys[second];
+            this.keys[second] = key;
+            final int data = this.data[first];
+            this.data[first] = this.data[second];
+            this.data[second] = data;
+        }
+    }
+
+    private static final class RunWriter implements RecordSink {
+        private final DataOutputStream output;
+
+        RunWriter(final File run) throws IOException {
+            this.output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run), STREAM_BUFFER_SIZE));
+        }
+
+        @Override
+        public void accept(final Record record) throws IOException {
+            this.output.writeLong(record.key);
+            this.output.writeShort(record.move);
+            for(final int count : record.counts){
+                this.output.writeInt(count);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.output.close();
+        }
+    }
+
+    private static final class RunReader implements Closeable {
+        private final DataInputStream input;
+        long key;
+        int move;
+        final int[] counts = new int[4];
+
+        RunReader(final File run) throws IOException {
+            this.input = new DataInputStream(new BufferedInputStream(new FileInputStream(run), STREAM_BUFFER_SIZE));
+        }
+
+        //read the next record into the fields, false at the end of the run.
+        boolean next() throws IOException {
+            try {
+                this.key = this.input.readLong();
+            } catch (final EOFException e) {
+                return false;
+            }
+            this.move = this.input.readUnsignedShort();
+            for(int i = 0; i < this.counts.length; i++){
+                this.counts[i] = this.input.readInt();
+            }
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.input.close();
+        }
+    }
+
+    /*
+    Receives the merged records in (key, move) order and writes the moves of one position at a time, so
+    their weights can be scaled together: the best scoring move gets at most 65535.
+    */
+    private static final class BookWriter implements RecordSink {
+        private final DataOutputStream output;
+        private final int minGames;
+        private final List<long[]> positionMoves = new ArrayList<>();
+        private long positionKey;
+        long entriesWritten;
+
+        BookWriter(final File bookFile, final int minGames) throws IOException {
+            this.output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(bookFile),
+                                                                        STREAM_BUFFER_SIZE));
+            this.minGames = minGames;
+        }
+
+        @Override
+        public void accept(final Record record) throws IOException {
+            if(!this.positionMoves.isEmpty() && record.key != this.positionKey){
+                writePosition();
+            }
+            this.positionKey = record.key;
+            if(record.games() >= this.minGames && record.score() > 0){
+                this.positionMoves.add(new long[]{record.move, record.score()});
+            }
+        }
+
+        private void writePosition() throws IOException {
+            long highestScore = 0;
+            for(final long[] move : this.positionMoves){
+                highestScore = Math.max(highestScore, move[1]);
+            }
+            for(final long[] move : this.positionMoves){
+                final long weight = highestScore > 0xFFFF ? Math.max(1, move[1] * 0xFFFF / highestScore) : move[1];
+                this.output.writeLong(this.positionKey);
+                this.output.writeShort((int) move[0]);
+                this.output.writeShort((int) weight);
+                this.output.writeInt(0);
+                this.entriesWritten++;
+            }
+            this.positionMoves.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if(!this.positionMoves.isEmpty()){
+                writePosition();
+            }
+            this.output.close();
+        }
+    }
+
+    public static class Builder {
+
+        int maxPly = 20;
+        int memoryBudgetInMegabytes = 256;
+        int threadCount = Runtime.getRuntime().availableProcessors();
+        int minGames = 1;
+        File workDirectory = new File(System.getProperty("java.io.tmpdir"));
+
+        public Builder setMaxPly(final int maxPly){
+            if(maxPly < 1){
+                throw new IllegalArgumentException("A book needs at least one ply");
+            }
+            this.maxPly = maxPly;
+            return this;
+        }
+
+        //for the in-memory records of all threads together, the merge only needs a few buffers on top.
+        public Builder setMemoryBudget(final int memoryBudgetInMegabytes){
+            if(memoryBudgetInMegabytes < 1){
+                throw new IllegalArgumentException("Memory budget must be at least 1 MB");
+            }
+            this.memoryBudgetInMegabytes = memoryBudgetInMegabytes;
+            return this;
+        }
+
+        public Builder setThreadCount(final int threadCount){
+            if(threadCount < 1){
+                throw new IllegalArgumentException("Need at least one thread");
+            }
+            this.threadCount = threadCount;
+            return this;
+        }
+
+        //moves played in fewer games are left out of the book.
+        public Builder setMinGames(final int minGames){
+            this.minGames = minGames;
+            return this;
+        }
+
+        public Builder setWorkDirectory(final File workDirectory){
+            this.workDirectory = workDirectory;
+            return this;
+        }
+
+        public PgnBookBuilder build(){
+            return new PgnBookBuilder(this);
+        }
+    }
+}
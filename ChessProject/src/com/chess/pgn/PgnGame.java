@@ -0,0 +1,55 @@
+package com.chess.pgn;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.List;
+import java.util.Map;
+
+//one game of a PGN file: its tags, its main line in SAN and how it ended ("1-0", "0-1", "1/2-1/2" or "*").
+public final class PgnGame {
+
+    private final Map<String, String> tags;
+    private final List<String> moves;
+    private final String result;
+
+    public PgnGame(final Map<String, String> tags, final List<String> moves, final String result) {
+        this.tags = ImmutableMap.copyOf(tags);
+        this.moves = ImmutableList.copyOf(moves);
+        this.result = result;
+    }
+
+    public Map<String, String> getTags(){
+        return this.tags;
+    }
+
+    public String getTag(final String name){
+        return this.tags.get(name);
+    }
+
+    public List<String> getMoves(){
+        return this.moves;
+    }
+
+    public String getResult(){
+        return this.result;
+    }
+
+    public boolean isWhiteWin(){
+        return this.result.equals("1-0");
+    }
+
+    public boolean isBlackWin(){
+        return this.result.equals("0-1");
+    }
+
+    public boolean isDraw(){
+        return this.result.equals("1/2-1/2");
+    }
+
+    @Override
+    public String toString(){
+        return this.tags.get("White") + " - " + this.tags.get("Black") + " " + this.result +
+               ", " + this.moves.size() + " plies";
+    }
+}
@@ -0,0 +1,137 @@
+package com.chess.pgn;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+Streams the games of a PGN file one at a time, so a file of any size is read with the memory of a single
+game. Only the main line is kept: comments, variations, move numbers and numeric annotations are skipped.
+*/
+public final class PgnGameReader implements Closeable {
+
+    private final BufferedReader reader;
+    //a tag line that already belongs to the next game.
+    private String pendingLine;
+
+    public PgnGameReader(final Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    //the next game, or null at the end of the input.
+    public PgnGame readGame() throws IOException {
+        final Map<String, String> tags = new LinkedHashMap<>();
+        final List<String> moves = new ArrayList<>();
+        boolean inComment = false;
+        int variationDepth = 0;
+        String line;
+        while((line = nextLine()) != null){
+            if(!inComment && variationDepth == 0 && line.startsWith("[")){
+                //a game without a result token ends where the tags of the next one start.
+                if(!moves.isEmpty()){
+                    this.pendingLine = line;
+                    return new PgnGame(tags, moves, resultTag(tags));
+                }
+                readTag(line, tags);
+                continue;
+            }
+            int i = 0;
+            while(i < line.length()){
+                final char c = line.charAt(i);
+                if(inComment){
+                    inComment = c != '}';
+                    i++;
+                } else if(c == '{'){
+                    inComment = true;
+                    i++;
+                } else if(c == ';'){
+                    break;
+                } else if(c == '('){
+                    variationDepth++;
+                    i++;
+                } else if(c == ')'){
+                    variationDepth = Math.max(0, variationDepth - 1);
+                    i++;
+                } else if(Character.isWhitespace(c)){
+                    i++;
+                } else {
+                    int end = i;
+                    while(end < line.length() && !isDelimiter(line.charAt(end))){
+                        end++;
+                    }
+                    final String token = line.substring(i, end);
+                    i = end;
+                    if(variationDepth > 0 || token.startsWith("$")){
+                        continue;
+                    }
+                    if(isResult(token)){
+                        return new PgnGame(tags, moves, token);
+                    }
+                    final String move = stripMoveNumber(token);
+                    if(!move.isEmpty()){
+                        moves.add(move);
+                    }
+                }
+            }
+        }
+        return tags.isEmpty() && moves.isEmpty() ? null : new PgnGame(tags, moves, resultTag(tags));
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.reader.close();
+    }
+
+    private String nextLine() throws IOException {
+        if(this.pendingLine != null){
+            final String line = this.pendingLine;
+            this.pendingLine = null;
+            return line;
+        }
+        final String line = this.reader.readLine();
+        return line != null ? line.trim() : null;
+    }
+
+    //[Name "value"]
+    private static void readTag(final String line, final Map<String, String> tags){
+        final int nameEnd = line.indexOf(' ');
+        final int valueStart = line.indexOf('"');
+        final int valueEnd = line.lastIndexOf('"');
+        if(nameEnd > 1 && valueStart > nameEnd && valueEnd > valueStart){
+            tags.put(line.substring(1, nameEnd), line.substring(valueStart + 1, valueEnd));
+        }
+    }
+
+    private static String resultTag(final Map<String, String> tags){
+        final String result = tags.get("Result");
+        return result != null && isResult(result) ? result : "*";
+    }
+
+    private static boolean isResult(final String token){
+        return token.equals("1-0") || token.equals("0-1") || token.equals("1/2-1/2") || token.equals("*");
+    }
+
+    private static boolean isDelimiter(final char c){
+        return Character.isWhitespace(c) || c == '{' || c == '}' || c == '(' || c == ')' || c == ';';
+    }
+
+    //"12.e4", "12..." and "12." all lose their move number.
+    private static String stripMoveNumber(final String token){
+        int i = 0;
+        while(i < token.length() && Character.isDigit(token.charAt(i))){
+            i++;
+        }
+        if(i == 0 || i == token.length() || token.charAt(i) != '.'){
+            return i == token.length() ? "" : token;
+        }
+        while(i < token.length() && token.charAt(i) == '.'){
+            i++;
+        }
+        return token.substring(i);
+    }
+}
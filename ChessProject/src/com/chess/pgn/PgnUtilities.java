@@ -0,0 +1,88 @@
+package com.chess.pgn;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.Move;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.player.MoveTransition;
+
+/*
+Turns the standard algebraic notation of PGN files ("Nbd7", "exd5", "e8=Q+", "O-O") into the move of
+this engine on a given board. Check and annotation marks are ignored, the board knows whether a move
+gives check.
+*/
+public class PgnUtilities {
+
+    //prevent the user from instantiating this class.
+    private PgnUtilities(){
+        throw new RuntimeException("Not instantiable!");
+    }
+
+    //the legal move the notation stands for on this board, or null if there is none.
+    public static Move createMove(final Board board, final String san){
+        String notation = san;
+        while(!notation.isEmpty() && "+#!?".indexOf(notation.charAt(notation.length() - 1)) >= 0){
+            notation = notation.substring(0, notation.length() - 1);
+        }
+        if(notation.equals("O-O") || notation.equals("0-0")){
+            return findCastleMove(board, Move.KingSideCastleMove.class);
+        }
+        if(notation.equals("O-O-O") || notation.equals("0-0-0")){
+            return findCastleMove(board, Move.QueenSideCastleMove.class);
+        }
+        //our pawns only ever promote to a queen, the piece named after "=" does not change the move.
+        final int promotion = notation.indexOf('=');
+        if(promotion >= 0){
+            notation = notation.substring(0, promotion);
+        } else if(notation.length() > 2 && "QRBN".indexOf(notation.charAt(notation.length() - 1)) >= 0){
+            notation = notation.substring(0, notation.length() - 1);
+        }
+        if(notation.length() < 2){
+            return null;
+        }
+        final String pieceName = "NBRQK".indexOf(notation.charAt(0)) >= 0 ? notation.substring(0, 1) : "P";
+        final int destination;
+        try {
+            destination = FenUtilities.tileCoordinateOf(notation.substring(notation.length() - 2));
+        } catch (final IllegalArgumentException e) {
+            return null;
+        }
+        //what is left between the piece and the destination: a file, a rank or both of the moving piece.
+        final String disambiguation = notation.substring(pieceName.equals("P") ? 0 : 1, notation.length() - 2)
+                                              .replace("x", "");
+        for(final Move move : board.currentPlayer().getLegalMoves()){
+            final Piece movedPiece = move.getMovedPiece();
+            if(move.getDestinationCoordinate() != destination ||
+               move instanceof Move.CastleMove ||
+               !movedPiece.getPieceType().toString().equals(pieceName) ||
+               !matches(disambiguation, move.getCurrentCoordinate())){
+                continue;
+            }
+            final MoveTransition transition = board.currentPlayer().makeMove(move);
+            if(transition.getMoveStatus().isDone()){
+                return move;
+            }
+        }
+        return null;
+    }
+
+    private static Move findCastleMove(final Board board, final Class<? extends Move> castleType){
+        for(final Move move : board.currentPlayer().getLegalMoves()){
+            if(castleType.isInstance(move) && board.currentPlayer().makeMove(move).getMoveStatus().isDone()){
+                return move;
+            }
+        }
+        return null;
+    }
+
+    //"e", "2" or "e2" against the algebraic name of the tile the piece moves from.
+    private static boolean matches(final String disambiguation, final int sourceCoordinate){
+        final String source = BoardUtils.getPositionAtCoordinate(sourceCoordinate);
+        for(final char c : disambiguation.toCharArray()){
+            if(source.indexOf(c) < 0){
+                return false;
+            }
+        }
+        return true;
+    }
+}